@@ -0,0 +1,105 @@
+/*
+ * Copyright 2023 Ilyes Sadaoui.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ilyriadz.database.benchmark;
+
+import ilyriadz.database.DatabaseManager;
+import ilyriadz.database.H2Database;
+import ilyriadz.telecomdaily.TelecomRef;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * the embedded H2 databases of the benchmarks, in memory or in a file of a
+ * temporary directory, holding a <code>references</code> table of 
+ * TelecomRef rows
+ *
+ * @author Ilyes Sadaoui
+ */
+final class BenchmarkDatabase
+{
+    static final String TABLE = "references";
+    static final List<String> COLUMNS = List.of("tel", "id", "reference", "dt");
+
+    private BenchmarkDatabase()
+    {
+    }
+
+    /**
+     * open a database with an empty references table
+     * @param storage <code>mem</code> or <code>file</code>
+     */
+    static DatabaseManager open(String storage)
+        throws SQLException, ClassNotFoundException, IOException
+    {
+        var dbm = new H2Database();
+        switch (storage)
+        {
+            case "mem" -> dbm.connect("mem:benchmark;DB_CLOSE_DELAY=-1", "sa", "");
+            case "file" ->
+            {
+                // empty once the files are deleted by close
+                var directory = Files.createTempDirectory("ilyriadz-benchmark");
+                directory.toFile().deleteOnExit();
+                dbm.connect(directory.resolve("benchmark").toString(), "sa", "");
+            }
+            default -> throw new IllegalArgumentException("unknown storage: " +
+                storage);
+        }
+
+        dbm.execute("drop table if exists " + TABLE);
+        dbm.createNotExistTable(TABLE, TelecomRef.class);
+        return dbm;
+    }
+
+    /**
+     * @return count references with distinct telephones
+     */
+    static List<TelecomRef> references(int count)
+    {
+        var dt = LocalDateTime.of(2023, 1, 1, 8, 0);
+        var references = new ArrayList<TelecomRef>(count);
+        for (int i = 0; i < count; i++)
+        {
+            var telref = new TelecomRef();
+            telref.setTel(100000 + i);
+            telref.setId(i % 1000);
+            telref.setReference("HEAD" + (i % 50) + ".3.1+2");
+            telref.setDt(dt.plusMinutes(i));
+            references.add(telref);
+        } // end for
+
+        return references;
+    }
+
+    static void fill(DatabaseManager dbm, int count) throws SQLException
+    {
+        dbm.insertAll(TABLE, TelecomRef.class, references(count), 1000);
+    }
+
+    /**
+     * drop the database and its files
+     */
+    static void close(DatabaseManager dbm) throws SQLException
+    {
+        try (dbm) {
+            dbm.execute("drop all objects delete files");
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2023 Ilyes Sadaoui.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ilyriadz.database.benchmark;
+
+import ilyriadz.database.DatabaseManager;
+import ilyriadz.database.EntityMapper;
+import ilyriadz.telecomdaily.TelecomRef;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * the cost of <code>createNotExistTable</code> from a class: the column
+ * definitions of the class and the statements of the table and its indexes
+ *
+ * @author Ilyes Sadaoui
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CreateTableBenchmark
+{
+    @Param({"mem", "file"})
+    public String storage;
+
+    private DatabaseManager dbm;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception
+    {
+        dbm = BenchmarkDatabase.open(storage);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception
+    {
+        BenchmarkDatabase.close(dbm);
+    }
+
+    @Benchmark
+    public List<String> columnDefinitions()
+    {
+        return EntityMapper.of(TelecomRef.class).columnDefinitions();
+    }
+
+    @Benchmark
+    public void existingTable() throws Exception
+    {
+        dbm.createNotExistTable(BenchmarkDatabase.TABLE, TelecomRef.class);
+    }
+
+    @Benchmark
+    public void newTable() throws Exception
+    {
+        dbm.createNotExistTable("created", TelecomRef.class);
+        dbm.execute("drop table created");
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2023 Ilyes Sadaoui.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ilyriadz.database.benchmark;
+
+import ilyriadz.database.DatabaseManager;
+import ilyriadz.telecomdaily.TelecomRef;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * the cost by row of the SQL text insert, the prepared insert and the
+ * batched insert.<br>
+ * the table is emptied before every invocation, out of the measured time,
+ * so every invocation inserts the same rows into an empty table: the rows
+ * do not collide with the unique key of the previous invocation and the
+ * cost is not measured against a growing table.
+ *
+ * @author Ilyes Sadaoui
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@OperationsPerInvocation(InsertBenchmark.ROWS)
+public class InsertBenchmark
+{
+    static final int ROWS = 1000;
+
+    @Param({"mem", "file"})
+    public String storage;
+
+    @Param({"100"})
+    public int batchSize;
+
+    private DatabaseManager dbm;
+    private List<TelecomRef> references;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception
+    {
+        dbm = BenchmarkDatabase.open(storage);
+        references = BenchmarkDatabase.references(ROWS);
+    }
+
+    @Setup(Level.Invocation)
+    public void truncate() throws Exception
+    {
+        dbm.execute("truncate table " + BenchmarkDatabase.TABLE);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception
+    {
+        BenchmarkDatabase.close(dbm);
+    }
+
+    @Benchmark
+    public void insert() throws Exception
+    {
+        for (var telref : references)
+            dbm.insert(BenchmarkDatabase.TABLE, BenchmarkDatabase.COLUMNS,
+                String.valueOf(telref.tel()), String.valueOf(telref.id()),
+                "'" + telref.reference() + "'",
+                "timestamp '" + telref.dt() + "'");
+    }
+
+    @Benchmark
+    public void insertPrepared() throws Exception
+    {
+        for (var telref : references)
+            dbm.insertPrepared(BenchmarkDatabase.TABLE, BenchmarkDatabase.COLUMNS,
+                telref.tel(), telref.id(), telref.reference(), telref.dt());
+    }
+
+    @Benchmark
+    public long insertAll() throws Exception
+    {
+        return dbm.insertAll(BenchmarkDatabase.TABLE, TelecomRef.class,
+            references, batchSize);
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2023 Ilyes Sadaoui.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ilyriadz.database.benchmark;
+
+import ilyriadz.database.DatabaseManager;
+import ilyriadz.telecomdaily.TelecomRef;
+import ilyriadz.telecomdaily.TelecomRefView;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * the cost of mapping the rows of a select to objects, compared to reading
+ * the ResultSet by hand
+ *
+ * @author Ilyes Sadaoui
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SelectBenchmark
+{
+    @Param({"mem", "file"})
+    public String storage;
+
+    @Param({"1000", "100000"})
+    public int rows;
+
+    private DatabaseManager dbm;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception
+    {
+        dbm = BenchmarkDatabase.open(storage);
+        BenchmarkDatabase.fill(dbm, rows);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception
+    {
+        BenchmarkDatabase.close(dbm);
+    }
+
+    @Benchmark
+    public void resultSet(Blackhole bh) throws Exception
+    {
+        try (var rs = dbm.select(BenchmarkDatabase.TABLE, ""))
+        {
+            while (rs.next())
+            {
+                bh.consume(rs.getInt(1));
+                bh.consume(rs.getInt(2));
+                bh.consume(rs.getString(3));
+                bh.consume(rs.getObject(4));
+            } // end while
+        }
+    }
+
+    @Benchmark
+    public List<TelecomRef> select() throws Exception
+    {
+        return dbm.select(BenchmarkDatabase.TABLE, "", TelecomRef.class);
+    }
+
+    @Benchmark
+    public List<TelecomRefView> project() throws Exception
+    {
+        return dbm.project(BenchmarkDatabase.TABLE, "", TelecomRefView.class);
+    }
+
+    @Benchmark
+    public long stream() throws Exception
+    {
+        try (var stream = dbm.stream(BenchmarkDatabase.TABLE, "", TelecomRef.class))
+        {
+            return stream.mapToLong(TelecomRef::tel).sum();
+        }
+    }
+}
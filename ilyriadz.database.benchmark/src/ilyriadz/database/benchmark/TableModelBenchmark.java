@@ -0,0 +1,77 @@
+/*
+ * Copyright 2023 Ilyes Sadaoui.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ilyriadz.database.benchmark;
+
+import ilyriadz.database.DatabaseManager;
+import ilyriadz.database.util.DatabaseGutil;
+import ilyriadz.telecomdaily.TelecomRef;
+import java.util.concurrent.TimeUnit;
+import javax.swing.table.TableModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * the cost of building the Swing table model of a table
+ *
+ * @author Ilyes Sadaoui
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class TableModelBenchmark
+{
+    @Param({"mem", "file"})
+    public String storage;
+
+    @Param({"1000", "100000"})
+    public int rows;
+
+    private DatabaseManager dbm;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception
+    {
+        dbm = BenchmarkDatabase.open(storage);
+        BenchmarkDatabase.fill(dbm, rows);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception
+    {
+        BenchmarkDatabase.close(dbm);
+    }
+
+    @Benchmark
+    public TableModel generateTableModel() throws Exception
+    {
+        return DatabaseGutil.generateTableModel(dbm, BenchmarkDatabase.TABLE,
+            "", TelecomRef.class);
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2023 Ilyes Sadaoui.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ilyriadz.database.benchmark;
+
+import ilyriadz.telecomdaily.TelecomRef;
+import ilyriadz.telecomdaily.TelecomRefImport;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * the cost by value of the TelecomRef validation, by 
+ * <code>String.matches</code> compiling the regex for every call and by the
+ * compiled patterns
+ *
+ * @author Ilyes Sadaoui
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@OperationsPerInvocation(ValidationBenchmark.SIZE)
+public class ValidationBenchmark
+{
+    static final int SIZE = 4;
+
+    private final String[] tels = {"905000", "12345", "0123", "99999999"};
+    private final String[] references = {
+        "HEAD1.3.1+2", "node-1:A1.2.3 B2.4.5+6", "A.1.2", "1A.9.1"};
+    private final List<List<String>> lines = List.of(
+        List.of("905000", "12", "HEAD1.3.1+2"),
+        List.of("12345", "7", "node-1:A1.2.3 B2.4.5+6", "01/02/2023 10:00:00"),
+        List.of("12x", "7", "A.1.2"),
+        List.of("905001", "12", "1A.9.1"));
+
+    @Benchmark
+    public void telMatches(Blackhole bh)
+    {
+        for (var tel : tels)
+            bh.consume(tel.matches(TelecomRef.TEL_REGEX));
+    }
+
+    @Benchmark
+    public void telPattern(Blackhole bh)
+    {
+        for (var tel : tels)
+            bh.consume(TelecomRef.isValidTel(tel));
+    }
+
+    @Benchmark
+    public void refMatches(Blackhole bh)
+    {
+        for (var reference : references)
+            bh.consume(reference.matches(TelecomRef.REF_REGEX));
+    }
+
+    @Benchmark
+    public void refPattern(Blackhole bh)
+    {
+        for (var reference : references)
+            bh.consume(TelecomRef.isValidRef(reference));
+    }
+
+    @Benchmark
+    public void parseLine(Blackhole bh)
+    {
+        for (var line : lines)
+        {
+            try {
+                bh.consume(TelecomRefImport.parse(line));
+            } catch (IllegalArgumentException ex) {
+                bh.consume(ex);
+            }
+        } // end for
+    }
+}
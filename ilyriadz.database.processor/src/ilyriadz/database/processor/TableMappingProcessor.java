@@ -0,0 +1,717 @@
+/*
+ * Copyright 2023 Ilyes Sadaoui.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ilyriadz.database.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.FilerException;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+
+/**
+ * generates a <code>ilyriadz.database.TableMapping</code> for every class
+ * with fields tagged with <code>{@literal @}TypeProperties</code>, so the 
+ * class is mapped with no reflection and its module does not have to be 
+ * open.<br>
+ * the mapping is generated in the package of the class and named by the
+ * binary name of the class with <code>$</code> replaced by <code>_</code> 
+ * and followed by <code>_TableMapping</code>, the DatabaseManager loads it
+ * by this name.<br>
+ * the private fields are accessed by their accessors: 
+ * <code>name()</code>, <code>getName()</code> or <code>isName()</code> and
+ * <code>setName(value)</code>. a record is created by its canonical 
+ * constructor. a class that can not be mapped without reflection is reported
+ * by a warning and mapped by reflection.
+ * 
+ * @author Ilyes Sadaoui
+ */
+@SupportedAnnotationTypes(TableMappingProcessor.TYPE_PROPERTIES)
+public class TableMappingProcessor extends AbstractProcessor
+{
+    static final String TYPE_PROPERTIES = "ilyriadz.database.TypeProperties";
+    
+    /**
+     * a mapped field with the expressions reading and writing it
+     */
+    private record Property(String name, TypeMirror type, String definition,
+        String getter, String setter)
+    {
+    }
+    
+    /**
+     * a class which can not be mapped without reflection
+     */
+    private static final class Unsupported extends Exception
+    {
+        private static final long serialVersionUID = 1L;
+        
+        private Unsupported(String message)
+        {
+            super(message, null, false, false);
+        }
+    }
+
+    public TableMappingProcessor()
+    {
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion()
+    {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, 
+        RoundEnvironment roundEnv)
+    {
+        var annotation = processingEnv.getElementUtils()
+            .getTypeElement(TYPE_PROPERTIES);
+        if (annotation == null)
+            return false;
+        
+        var types = new LinkedHashSet<TypeElement>();
+        for (var element : roundEnv.getElementsAnnotatedWith(annotation))
+        {
+            if (element.getKind() == ElementKind.FIELD)
+                types.add((TypeElement) element.getEnclosingElement());
+        } // end for
+        
+        for (var type : types)
+        {
+            try {
+                generate(type, annotation);
+            } catch (Unsupported ex) {
+                processingEnv.getMessager().printMessage(
+                    Diagnostic.Kind.WARNING, type.getQualifiedName() + 
+                    " is mapped by reflection: " + ex.getMessage(), type);
+            } catch (IOException ex) {
+                processingEnv.getMessager().printMessage(
+                    Diagnostic.Kind.ERROR, "can not generate the mapping of " +
+                    type.getQualifiedName() + ": " + ex.getMessage(), type);
+            }
+        } // end for
+        
+        // the annotation is left to the other processors
+        return false;
+    }
+    
+    private void generate(TypeElement type, TypeElement annotation) 
+        throws Unsupported, IOException
+    {
+        checkType(type);
+        var record = type.getKind() == ElementKind.RECORD;
+        
+        var properties = new ArrayList<Property>();
+        var columns = new ArrayList<Property>();
+        var names = new HashSet<String>();
+        for (var field : ElementFilter.fieldsIn(type.getEnclosedElements()))
+        {
+            if (field.getModifiers().contains(Modifier.STATIC))
+                continue;
+            
+            var name = field.getSimpleName().toString();
+            if (!names.add(name.toLowerCase(Locale.ROOT)))
+                throw new Unsupported("two fields are named " + name + 
+                    " ignoring the case");
+            
+            var definition = definition(field, annotation);
+            var property = new Property(name, field.asType(), definition,
+                definition == null ? null : getter(type, field), 
+                setter(type, field));
+            
+            if (record || property.setter() != null)
+                read(property.type(), "0", 0); // the type must be readable
+            
+            properties.add(property);
+            if (definition != null)
+                columns.add(property);
+        } // end for
+        
+        if (columns.isEmpty())
+            return;
+        
+        var binaryName = processingEnv.getElementUtils().getBinaryName(type)
+            .toString().replace('$', '_') + "_TableMapping";
+        var file = processingEnv.getFiler().createSourceFile(binaryName, type);
+        try (var writer = file.openWriter())
+        {
+            write(writer, type, binaryName, record, properties, columns);
+        } catch (FilerException ex) {
+            // already generated in a previous round
+        }
+    }
+    
+    private void checkType(TypeElement type) throws Unsupported
+    {
+        if (type.getKind() != ElementKind.CLASS && 
+            type.getKind() != ElementKind.RECORD)
+            throw new Unsupported("only the classes and records are supported");
+        if (type.getModifiers().contains(Modifier.ABSTRACT))
+            throw new Unsupported("the class is abstract");
+        if (!type.getTypeParameters().isEmpty())
+            throw new Unsupported("the class is generic");
+        
+        for (Element e = type; e instanceof TypeElement t; 
+            e = e.getEnclosingElement())
+        {
+            if (t.getModifiers().contains(Modifier.PRIVATE))
+                throw new Unsupported(t.getSimpleName() + " is private");
+            if (t.getNestingKind() != NestingKind.TOP_LEVEL && 
+                !t.getModifiers().contains(Modifier.STATIC))
+                throw new Unsupported(t.getSimpleName() + " is an inner class");
+        } // end for
+        
+        if (type.getKind() == ElementKind.RECORD)
+            return; // created by its canonical constructor
+        
+        var constructor = ElementFilter.constructorsIn(type.getEnclosedElements())
+            .stream()
+            .filter(c -> c.getParameters().isEmpty())
+            .findFirst();
+        if (constructor.isEmpty() || 
+            constructor.get().getModifiers().contains(Modifier.PRIVATE))
+            throw new Unsupported("no accessible constructor without parameters");
+    }
+    
+    /**
+     * @return the <code>CREATE TABLE</code> definition of the column of a
+     *  tagged field, or null if the field is not tagged
+     */
+    private String definition(VariableElement field, TypeElement annotation)
+    {
+        for (var mirror : field.getAnnotationMirrors())
+        {
+            if (!mirror.getAnnotationType().asElement().equals(annotation))
+                continue;
+            
+            var value = "";
+            for (var entry : mirror.getElementValues().entrySet())
+            {
+                if (entry.getKey().getSimpleName().contentEquals("value"))
+                    value = entry.getValue().getValue().toString();
+            } // end for
+            
+            return field.getSimpleName() + " " + sqlType(field.asType()) + 
+                " " + value;
+        } // end for
+        
+        return null;
+    }
+    
+    /**
+     * the SQL type of the column of a field type, the same as the 
+     * reflection mapping of the DatabaseManager
+     */
+    private String sqlType(TypeMirror type)
+    {
+        if (isEnum(type))
+            return "integer";
+        if (isBytes(type))
+            return "varbinary";
+        
+        return switch (erasure(type))
+        {
+            case "int", "java.lang.Integer" -> "integer";
+            case "long", "java.lang.Long" -> "bigint";
+            case "short", "java.lang.Short" -> "smallint";
+            case "byte", "java.lang.Byte" -> "tinyint";
+            case "float", "java.lang.Float" -> "float";
+            case "double", "java.lang.Double" -> "double";
+            case "boolean", "java.lang.Boolean" -> "boolean";
+            case "java.math.BigDecimal" -> "decimal";
+            case "java.time.LocalDate" -> "date";
+            case "java.time.LocalTime" -> "time";
+            case "java.time.LocalDateTime" -> "timestamp";
+            case "java.time.OffsetDateTime", "java.time.Instant" -> 
+                "timestamp with time zone";
+            default -> "varchar";
+        };
+    }
+    
+    /**
+     * @return the expression reading a field of <code>entity</code>
+     */
+    private String getter(TypeElement type, VariableElement field) 
+        throws Unsupported
+    {
+        var name = field.getSimpleName().toString();
+        if (!field.getModifiers().contains(Modifier.PRIVATE))
+            return "entity." + name;
+        
+        var accessors = List.of(name, "get" + capitalize(name), 
+            "is" + capitalize(name));
+        for (var method : ElementFilter.methodsIn(type.getEnclosedElements()))
+        {
+            if (accessors.contains(method.getSimpleName().toString()) && 
+                method.getParameters().isEmpty() && accessible(method) &&
+                processingEnv.getTypeUtils().isSameType(
+                    method.getReturnType(), field.asType()))
+                return "entity." + method.getSimpleName() + "()";
+        } // end for
+        
+        throw new Unsupported("the private field " + name + " has no getter");
+    }
+    
+    /**
+     * @return the statement format writing a value to a field of 
+     *  <code>entity</code>, or null for a final field
+     */
+    private String setter(TypeElement type, VariableElement field) 
+        throws Unsupported
+    {
+        var name = field.getSimpleName().toString();
+        if (field.getModifiers().contains(Modifier.FINAL))
+            return null;
+        if (!field.getModifiers().contains(Modifier.PRIVATE))
+            return "entity." + name + " = %s;";
+        
+        var setter = "set" + capitalize(name);
+        for (var method : ElementFilter.methodsIn(type.getEnclosedElements()))
+        {
+            if (method.getSimpleName().contentEquals(setter) && 
+                method.getParameters().size() == 1 && accessible(method) &&
+                processingEnv.getTypeUtils().isSameType(
+                    method.getParameters().get(0).asType(), field.asType()))
+                return "entity." + setter + "(%s);";
+        } // end for
+        
+        throw new Unsupported("the private field " + name + " has no setter");
+    }
+    
+    private static boolean accessible(ExecutableElement method)
+    {
+        return !method.getModifiers().contains(Modifier.PRIVATE) && 
+            !method.getModifiers().contains(Modifier.STATIC);
+    }
+    
+    private static String capitalize(String name)
+    {
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+    
+    /**
+     * @return the expression reading a column of <code>rs</code> as the
+     *  type of the field of a property
+     */
+    private String read(TypeMirror type, String index, int property) 
+        throws Unsupported
+    {
+        if (isEnum(type))
+            return "ordinal(VALUES_" + property + ", rs.getInt(" + index + 
+                "), rs.wasNull())";
+        if (isBytes(type))
+            return "rs.getBytes(" + index + ")";
+        if (isType(type, "java.math.BigDecimal"))
+            return "rs.getBigDecimal(" + index + ")";
+        
+        return switch (type.getKind())
+        {
+            case INT -> "rs.getInt(" + index + ")";
+            case LONG -> "rs.getLong(" + index + ")";
+            case DOUBLE -> "rs.getDouble(" + index + ")";
+            case FLOAT -> "rs.getFloat(" + index + ")";
+            case BOOLEAN -> "rs.getBoolean(" + index + ")";
+            case SHORT -> "rs.getShort(" + index + ")";
+            case BYTE -> "rs.getByte(" + index + ")";
+            case DECLARED, ARRAY -> isType(type, "java.lang.String") ? 
+                "rs.getString(" + index + ")" : 
+                "rs.getObject(" + index + ", " + erasure(type) + ".class)";
+            default -> throw new Unsupported(type + " fields are not supported");
+        };
+    }
+    
+    /**
+     * @return the statement binding a field value to the parameter 
+     *  <code>index</code> of <code>ps</code>
+     */
+    private String write(TypeMirror type, String index, String value)
+    {
+        if (isEnum(type))
+            return "ps.setObject(" + index + ", ordinal(" + value + "));";
+        if (isBytes(type))
+            return "ps.setBytes(" + index + ", " + value + ");";
+        if (isType(type, "java.math.BigDecimal"))
+            return "ps.setBigDecimal(" + index + ", " + value + ");";
+        
+        var setter = switch (type.getKind())
+        {
+            case INT -> "setInt";
+            case LONG -> "setLong";
+            case DOUBLE -> "setDouble";
+            case FLOAT -> "setFloat";
+            case BOOLEAN -> "setBoolean";
+            case SHORT -> "setShort";
+            case BYTE -> "setByte";
+            default -> "setObject";
+        };
+        
+        return "ps." + setter + "(" + index + ", " + value + ");";
+    }
+    
+    /**
+     * @return the default value of a record component which is not selected
+     */
+    private static String defaultValue(TypeMirror type)
+    {
+        return switch (type.getKind())
+        {
+            case INT -> "0";
+            case LONG -> "0L";
+            case DOUBLE -> "0d";
+            case FLOAT -> "0f";
+            case BOOLEAN -> "false";
+            case SHORT -> "(short) 0";
+            case BYTE -> "(byte) 0";
+            default -> "null";
+        };
+    }
+    
+    private static boolean isType(TypeMirror type, String qualifiedName)
+    {
+        return type instanceof DeclaredType declared && 
+            ((TypeElement) declared.asElement()).getQualifiedName()
+                .contentEquals(qualifiedName);
+    }
+    
+    private static boolean isEnum(TypeMirror type)
+    {
+        return type instanceof DeclaredType declared && 
+            declared.asElement().getKind() == ElementKind.ENUM;
+    }
+    
+    private static boolean isBytes(TypeMirror type)
+    {
+        return type instanceof ArrayType array && 
+            array.getComponentType().getKind() == TypeKind.BYTE;
+    }
+    
+    private String erasure(TypeMirror type)
+    {
+        return type.getKind().isPrimitive() ? type.toString() : 
+            processingEnv.getTypeUtils().erasure(type).toString();
+    }
+    
+    private static String quote(String text)
+    {
+        return '"' + text.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+    }
+    
+    private void write(Writer writer, TypeElement type, String binaryName,
+        boolean record, List<Property> properties, List<Property> columns) 
+        throws IOException, Unsupported
+    {
+        var pkg = binaryName.substring(0, Math.max(0, binaryName.lastIndexOf('.')));
+        var simpleName = binaryName.substring(binaryName.lastIndexOf('.') + 1);
+        var entity = type.getQualifiedName().toString();
+        
+        var out = new StringBuilder();
+        out.append("// generated by ilyriadz.database.processor, do not edit\n");
+        if (!pkg.isEmpty())
+            out.append("package ").append(pkg).append(";\n\n");
+        
+        out.append("""
+            import ilyriadz.database.EntityMapper;
+            import ilyriadz.database.RowReader;
+            import ilyriadz.database.TableMapping;
+            import java.sql.PreparedStatement;
+            import java.sql.ResultSetMetaData;
+            import java.sql.SQLException;
+            import java.util.List;
+            import java.util.Locale;
+            
+            """);
+        out.append("final class ").append(simpleName)
+            .append(" implements TableMapping<").append(entity).append(">\n{\n");
+        
+        out.append("    private static final List<String> COLUMNS = List.of(")
+            .append(String.join(", ", columns.stream()
+                .map(p -> quote(p.name())).toList()))
+            .append(");\n");
+        out.append("    private static final List<Class<?>> COLUMN_TYPES = List.of(")
+            .append(String.join(", ", columns.stream()
+                .map(p -> erasure(p.type()) + ".class").toList()))
+            .append(");\n");
+        out.append("    private static final List<String> COLUMN_DEFINITIONS = List.of(")
+            .append(String.join(", ", columns.stream()
+                .map(p -> quote(p.definition())).toList()))
+            .append(");\n");
+        
+        // the fields set from a row, a final field of a class is not set
+        var readable = properties.stream()
+            .filter(p -> record || p.setter() != null)
+            .toList();
+        out.append("    private static final List<String> PROPERTIES = List.of(")
+            .append(String.join(", ", readable.stream()
+                .map(p -> quote(p.name())).toList()))
+            .append(");\n");
+        out.append("    private static final List<Class<?>> PROPERTY_TYPES = List.of(")
+            .append(String.join(", ", readable.stream()
+                .map(p -> erasure(p.type()) + ".class").toList()))
+            .append(");\n");
+        
+        var enums = false;
+        for (int i = 0; i < properties.size(); i++)
+        {
+            var property = properties.get(i);
+            if (!isEnum(property.type()))
+                continue;
+            
+            enums = true;
+            if (record || property.setter() != null)
+                out.append("    private static final ").append(erasure(property.type()))
+                    .append("[] VALUES_").append(i).append(" = ")
+                    .append(erasure(property.type())).append(".values();\n");
+        } // end for
+        out.append("\n");
+        
+        out.append("    @Override\n")
+            .append("    public Class<").append(entity).append("> type()\n")
+            .append("    {\n")
+            .append("        return ").append(entity).append(".class;\n")
+            .append("    }\n\n");
+        
+        out.append("""
+                @Override
+                public List<String> columns()
+                {
+                    return COLUMNS;
+                }
+            
+                @Override
+                public List<Class<?>> columnTypes()
+                {
+                    return COLUMN_TYPES;
+                }
+            
+                @Override
+                public List<String> columnDefinitions()
+                {
+                    return COLUMN_DEFINITIONS;
+                }
+            
+                @Override
+                public List<String> properties()
+                {
+                    return PROPERTIES;
+                }
+            
+                @Override
+                public List<Class<?>> propertyTypes()
+                {
+                    return PROPERTY_TYPES;
+                }
+            
+            """);
+        
+        out.append("    @Override\n")
+            .append("    public Object get(").append(entity)
+            .append(" entity, int column)\n")
+            .append("    {\n")
+            .append("        return switch (column)\n")
+            .append("        {\n");
+        for (int i = 0; i < columns.size(); i++)
+            out.append("            case ").append(i).append(" -> ")
+                .append(columns.get(i).getter()).append(";\n");
+        out.append("            default -> throw new IndexOutOfBoundsException(column);\n")
+            .append("        };\n")
+            .append("    }\n\n");
+        
+        out.append("    @Override\n")
+            .append("    public void bind(PreparedStatement ps, int firstIndex, ")
+            .append(entity).append(" entity)\n")
+            .append("        throws SQLException\n")
+            .append("    {\n");
+        for (int i = 0; i < columns.size(); i++)
+            out.append("        ").append(write(columns.get(i).type(), 
+                "firstIndex + " + i, columns.get(i).getter())).append("\n");
+        out.append("    }\n\n");
+        
+        out.append("    @Override\n")
+            .append("    public RowReader<").append(entity)
+            .append("> reader(ResultSetMetaData rsmd)\n")
+            .append("        throws SQLException\n")
+            .append("    {\n")
+            .append("        var indexes = new int[").append(properties.size())
+            .append("];\n")
+            .append("        for (int i = 1; i <= rsmd.getColumnCount(); i++)\n")
+            .append("        {\n")
+            .append("            switch (rsmd.getColumnLabel(i).toLowerCase(Locale.ROOT))\n")
+            .append("            {\n");
+        for (int i = 0; i < properties.size(); i++)
+        {
+            if (record || properties.get(i).setter() != null)
+                out.append("                case ")
+                    .append(quote(properties.get(i).name().toLowerCase(Locale.ROOT)))
+                    .append(" -> indexes[").append(i).append("] = i;\n");
+        } // end for
+        out.append("                default -> { }\n")
+            .append("            }\n")
+            .append("        }\n\n");
+        if (record)
+        {
+            writeRecordReader(out, entity, properties);
+            writeRecordCreate(out, entity, readable);
+        }
+        else
+        {
+            writeReader(out, entity, properties);
+            writeCreate(out, entity, readable);
+        } // end if
+        
+        if (enums)
+        {
+            out.append("""
+                    private static Integer ordinal(Enum<?> value)
+                    {
+                        return value == null ? null : value.ordinal();
+                    }
+                
+                    private static <E> E ordinal(E[] values, int ordinal, boolean wasNull)
+                    {
+                        return wasNull ? null : values[ordinal];
+                    }
+                
+                """);
+        } // end if
+        
+        // last, the mapping is registered when its constants are initialized
+        out.append("    static\n")
+            .append("    {\n")
+            .append("        EntityMapper.register(new ").append(simpleName)
+            .append("());\n")
+            .append("    }\n")
+            .append("}\n");
+        
+        writer.write(out.toString());
+    }
+    
+    private void writeReader(StringBuilder out, String entity, 
+        List<Property> properties) throws Unsupported
+    {
+        out.append("        return rs ->\n")
+            .append("        {\n")
+            .append("            var entity = new ").append(entity).append("();\n");
+        for (int i = 0; i < properties.size(); i++)
+        {
+            var property = properties.get(i);
+            if (property.setter() == null)
+                continue;
+            
+            var index = "indexes[" + i + "]";
+            out.append("            if (").append(index).append(" != 0)\n")
+                .append("                ").append(property.setter().formatted(
+                    read(property.type(), index, i))).append("\n");
+        } // end for
+        out.append("            return entity;\n")
+            .append("        };\n")
+            .append("    }\n\n");
+    }
+    
+    /**
+     * the components are passed to the canonical constructor in declaration
+     * order, the components which are not selected get their default value
+     */
+    private void writeRecordReader(StringBuilder out, String entity, 
+        List<Property> properties) throws Unsupported
+    {
+        out.append("        return rs -> new ").append(entity).append("(");
+        for (int i = 0; i < properties.size(); i++)
+        {
+            var property = properties.get(i);
+            var index = "indexes[" + i + "]";
+            out.append(i == 0 ? "\n" : ",\n")
+                .append("            ").append(index).append(" != 0 ? ")
+                .append(read(property.type(), index, i)).append(" : ")
+                .append(defaultValue(property.type()));
+        } // end for
+        out.append(");\n")
+            .append("    }\n\n");
+    }
+    
+    private void writeCreate(StringBuilder out, String entity, 
+        List<Property> readable)
+    {
+        out.append("    @Override\n")
+            .append("    public ").append(entity)
+            .append(" create(Object[] values, boolean[] selected)\n")
+            .append("    {\n")
+            .append("        var entity = new ").append(entity).append("();\n");
+        for (int i = 0; i < readable.size(); i++)
+        {
+            var property = readable.get(i);
+            out.append("        if (selected[").append(i).append("])\n")
+                .append("            ").append(property.setter().formatted(
+                    value(property.type(), i))).append("\n");
+        } // end for
+        out.append("        return entity;\n")
+            .append("    }\n\n");
+    }
+    
+    /**
+     * the components are passed to the canonical constructor in declaration
+     * order like {@link #writeRecordReader}
+     */
+    private void writeRecordCreate(StringBuilder out, String entity, 
+        List<Property> readable)
+    {
+        out.append("    @Override\n")
+            .append("    public ").append(entity)
+            .append(" create(Object[] values, boolean[] selected)\n")
+            .append("    {\n")
+            .append("        return new ").append(entity).append("(");
+        for (int i = 0; i < readable.size(); i++)
+        {
+            var property = readable.get(i);
+            out.append(i == 0 ? "\n" : ",\n")
+                .append("            selected[").append(i).append("] ? ")
+                .append(value(property.type(), i)).append(" : ")
+                .append(defaultValue(property.type()));
+        } // end for
+        out.append(");\n")
+            .append("    }\n\n");
+    }
+    
+    /**
+     * @return the expression casting a property value to the type of its
+     *  field, a primitive is unboxed
+     */
+    private String value(TypeMirror type, int property)
+    {
+        return "(" + erasure(type) + ") values[" + property + "]";
+    }
+}
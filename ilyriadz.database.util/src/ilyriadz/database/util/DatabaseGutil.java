@@ -5,6 +5,7 @@
 package ilyriadz.database.util;
 
 import ilyriadz.database.DatabaseManager;
+import ilyriadz.database.EntityMapper;
 import ilyriadz.database.H2Database;
 import ilyriadz.database.TypeProperties;
 import java.awt.Font;
@@ -36,14 +37,11 @@ public class DatabaseGutil {
     public static <T> JTable generateTable(DatabaseManager dbm, 
         String tableName, String others, Class<T> cls) throws SQLException, NoSuchFieldException, IllegalArgumentException, IllegalAccessException
     {
-        var fields = Arrays.asList(cls.getDeclaredFields())
-            .stream()
-            .filter(e -> e.getAnnotation(TypeProperties.class) != null)
-            .map(e -> e.getName())
-            .toList();
+        var event = new TableModelBuiltEvent();
+        event.begin();
         
-        var columnNames = new String[fields.size()];
-        fields.toArray(columnNames);
+        var mapper = EntityMapper.of(cls);
+        var columnNames = mapper.columns().toArray(String[]::new);
         
         var select = dbm.select(tableName, others, cls);
         
@@ -57,11 +55,7 @@ public class DatabaseGutil {
             {
                 Object[] record = new Object[columnNames.length];
                 for (int j = 0; j < columnNames.length; j++) 
-                {
-                    Field f = cls.getDeclaredField(columnNames[j]);
-                    f.setAccessible(true);
-                    record[j] = f.get(select.get(i));
-                }
+                    record[j] = mapper.get(select.get(i), j);
                 
                 data[i] = record;
             }
@@ -71,6 +65,7 @@ public class DatabaseGutil {
         
         JTable table = new JTable(data, columnNames);
         table.setShowGrid(true);
+        event.commit(tableName, cls, select.size());
         
         return table;
     }
@@ -78,14 +73,11 @@ public class DatabaseGutil {
     public static <T> TableModel generateTableModel(DatabaseManager dbm, 
         String tableName, String others, Class<T> cls) throws SQLException, NoSuchFieldException, IllegalArgumentException, IllegalAccessException
     {
-        var fields = Arrays.asList(cls.getDeclaredFields())
-            .stream()
-            .filter(e -> e.getAnnotation(TypeProperties.class) != null)
-            .map(e -> e.getName())
-            .toList();
+        var event = new TableModelBuiltEvent();
+        event.begin();
         
-        var columnNames = new String[fields.size()];
-        fields.toArray(columnNames);
+        var mapper = EntityMapper.of(cls);
+        var columnNames = mapper.columns().toArray(String[]::new);
         
         var select = dbm.select(tableName, others, cls);
         
@@ -99,17 +91,28 @@ public class DatabaseGutil {
             {
                 Object[] record = new Object[columnNames.length];
                 for (int j = 0; j < columnNames.length; j++) 
-                {
-                    Field f = cls.getDeclaredField(columnNames[j]);
-                    f.setAccessible(true);
-                    record[j] = f.get(select.get(i));
-                }
+                    record[j] = mapper.get(select.get(i), j);
                 
                 data[i] = record;
             }
         } // end if
         
-        return new DefaultTableModel(data, columnNames);
+        var model = new DefaultTableModel(data, columnNames);
+        event.commit(tableName, cls, select.size());
+        
+        return model;
+    }
+    
+    /**
+     * load the rows of a table into a JTable in a background thread, the
+     * rows are appended in chunks and a load started before for the same
+     * JTable is cancelled
+     * @see TableLoader#load(javax.swing.JTable, ilyriadz.database.DatabaseManager, java.lang.String, java.lang.String, java.lang.Class, java.lang.Object...) 
+     */
+    public static <T> TableLoader<T> loadTable(JTable table, DatabaseManager dbm,
+        String tableName, String others, Class<T> cls, Object... params)
+    {
+        return TableLoader.load(table, dbm, tableName, others, cls, params);
     }
     
     public static <T> PanelData generatePanelData(Class<T> cls)
@@ -153,7 +156,8 @@ public class DatabaseGutil {
                 
             }
             
-            panelData.put(label.getText(), label, validator);
+            panelData.put(label.getText(), label, 
+                FieldValidator.recorded(label.getText(), validator));
         });
         
         return panelData;
@@ -161,17 +165,12 @@ public class DatabaseGutil {
     
     public static <T> List<Field> fields(Class<T> cls)
     {
-        return Arrays.asList(cls.getDeclaredFields()).stream()
-                .filter(e -> e.getAnnotation(TypeProperties.class) != null)
-                .toList();
+        return EntityMapper.of(cls).fields();
     }
     
     public static <T> List<String> columns(Class<T> cls)
     {
-        return Arrays.asList(cls.getDeclaredFields()).stream()
-                .filter(e -> e.getAnnotation(TypeProperties.class) != null)
-                .map(Field::getName)
-                .toList();
+        return EntityMapper.of(cls).columns();
     }
     
     public static <T> List<String> values(Class<T> cls, 
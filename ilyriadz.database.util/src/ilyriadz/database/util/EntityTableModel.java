@@ -0,0 +1,99 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package ilyriadz.database.util;
+
+import ilyriadz.database.EntityMapper;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * a read-only table model holding the rows as objects, the cells are read
+ * from the object fields by the EntityMapper of the class
+ * @author sadaoui ilyes
+ * @param <T> the row type
+ */
+public class EntityTableModel<T> extends AbstractTableModel
+{
+    private static final long serialVersionUID = 1L;
+    
+    private final transient EntityMapper<T> mapper;
+    private final transient List<T> rows = new ArrayList<>();
+
+    public EntityTableModel(Class<T> cls)
+    {
+        mapper = EntityMapper.of(cls);
+    }
+    
+    /**
+     * append rows at the end of the model, must be called in the event
+     * dispatch thread
+     * @param chunk the new rows
+     */
+    public void addRows(List<? extends T> chunk)
+    {
+        if (chunk.isEmpty())
+            return;
+        
+        var first = rows.size();
+        rows.addAll(chunk);
+        fireTableRowsInserted(first, rows.size() - 1);
+    }
+    
+    public void clear()
+    {
+        var size = rows.size();
+        if (size == 0)
+            return;
+        
+        rows.clear();
+        fireTableRowsDeleted(0, size - 1);
+    }
+    
+    public T getRow(int rowIndex)
+    {
+        return rows.get(rowIndex);
+    }
+    
+    public List<T> rows()
+    {
+        return Collections.unmodifiableList(rows);
+    }
+
+    @Override
+    public int getRowCount()
+    {
+        return rows.size();
+    }
+
+    @Override
+    public int getColumnCount()
+    {
+        return mapper.columns().size();
+    }
+
+    @Override
+    public String getColumnName(int column)
+    {
+        return mapper.columns().get(column);
+    }
+
+    @Override
+    public Class<?> getColumnClass(int columnIndex)
+    {
+        var type = mapper.columnTypes().get(columnIndex);
+        
+        return type.isPrimitive() ? 
+            MethodType.methodType(type).wrap().returnType() : type;
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex)
+    {
+        return mapper.get(rows.get(rowIndex), columnIndex);
+    }
+}
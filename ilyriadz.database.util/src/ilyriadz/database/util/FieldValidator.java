@@ -11,4 +11,26 @@ package ilyriadz.database.util;
 @FunctionalInterface
 public interface FieldValidator {
     boolean validate();
+    
+    /**
+     * a validator recorded as a <code>ilyriadz.database.util.ValidatorRun</code>
+     * flight recorder event, the event costs nothing unless a recording
+     * enables it
+     * @param field the validated field name
+     * @param validator the validator
+     * @return the recorded validator
+     */
+    static FieldValidator recorded(String field, FieldValidator validator) {
+        return () -> {
+            var event = new ValidatorRunEvent();
+            event.begin();
+            var valid = false;
+            try {
+                valid = validator.validate();
+                return valid;
+            } finally {
+                event.commit(field, valid);
+            }
+        };
+    }
 }
@@ -0,0 +1,410 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package ilyriadz.database.util;
+
+import ilyriadz.database.DatabaseManager;
+import ilyriadz.database.EntityMapper;
+import java.lang.invoke.MethodType;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.swing.SwingUtilities;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * a lazy table model showing a table of any size, only the pages of rows
+ * around the visible rows are loaded.<br>
+ * the row count is queried in a background thread on the first 
+ * {@link #getRowCount()}, the model has no rows until it arrives. the pages are loaded in a background thread by 
+ * <code>LIMIT/OFFSET</code> queries and kept in a bounded LRU cache, the 
+ * page after the requested one in the scroll direction is read ahead. the
+ * cells of a page not loaded yet are empty until it arrives.<br>
+ * a page request still queued when the view has scrolled away from it is
+ * dropped without its query, and a page arriving after the view left it is
+ * not cached, so dragging the scrollbar over a large table does not run a
+ * query for every page passed or evict the visible pages.<br>
+ * a page whose query failed is logged once and not requested again until
+ * {@link #refresh()}, its cells stay empty.<br>
+ * the pages are loaded by the given executor, or by two threads owned by
+ * the model and stopped by {@link #close()}.
+ * @author sadaoui ilyes
+ * @param <T> the row type
+ */
+public class PagedTableModel<T> extends AbstractTableModel 
+    implements AutoCloseable
+{
+    private static final long serialVersionUID = 1L;
+    
+    private final transient Executor loader;
+    private final transient ExecutorService ownedLoader;
+    private final transient DatabaseManager dbm;
+    private final String tableName;
+    private final String where;
+    private final String others;
+    private final Class<T> cls;
+    private final transient Object[] params;
+    private final transient EntityMapper<T> mapper;
+    private final int pageSize;
+    private final int cachedPages;
+    /**
+     * the distance in pages from the last requested page of the pages still
+     * loaded, the cache holds them all
+     */
+    private final int nearPages;
+    
+    // accessed in the event dispatch thread only
+    private final transient Map<Integer, List<T>> pages;
+    private final transient Set<Integer> loading = new HashSet<>();
+    private final transient Set<Integer> failed = new HashSet<>();
+    private boolean closed;
+    private boolean counting;
+    private int rowCount;
+    private int generation;
+    
+    // written in the event dispatch thread, read by the loader threads
+    private volatile int lastPage;
+
+    /**
+     * create a model with pages of 200 rows and 16 cached pages
+     * @param dbm the DatabaseManager
+     * @param tableName the table name
+     * @param criteria the <code>WHERE</code> clause with <code>?</code> 
+     *  placeholders, empty for all the rows
+     * @param orderBy the <code>ORDER BY</code> columns, should be unique to
+     *  keep the pages stable
+     * @param cls the row class
+     * @param params the criteria parameters values
+     */
+    public PagedTableModel(DatabaseManager dbm, String tableName, 
+        String criteria, String orderBy, Class<T> cls, Object... params)
+    {
+        this(dbm, tableName, criteria, orderBy, cls, 200, 16, params);
+    }
+    
+    /**
+     * create a model
+     * @param dbm the DatabaseManager
+     * @param tableName the table name
+     * @param criteria the <code>WHERE</code> clause with <code>?</code> 
+     *  placeholders, empty for all the rows
+     * @param orderBy the <code>ORDER BY</code> columns, should be unique to
+     *  keep the pages stable
+     * @param cls the row class
+     * @param pageSize the number of rows of a page
+     * @param cachedPages the maximum number of pages kept in memory
+     * @param params the criteria parameters values
+     */
+    public PagedTableModel(DatabaseManager dbm, String tableName, 
+        String criteria, String orderBy, Class<T> cls, int pageSize, 
+        int cachedPages, Object[] params)
+    {
+        this(dbm, tableName, criteria, orderBy, cls, pageSize, cachedPages, 
+            null, params);
+    }
+    
+    /**
+     * create a model loading its pages by the given executor
+     * @param dbm the DatabaseManager
+     * @param tableName the table name
+     * @param criteria the <code>WHERE</code> clause with <code>?</code> 
+     *  placeholders, empty for all the rows
+     * @param orderBy the <code>ORDER BY</code> columns, should be unique to
+     *  keep the pages stable
+     * @param cls the row class
+     * @param pageSize the number of rows of a page
+     * @param cachedPages the maximum number of pages kept in memory
+     * @param loader the executor running the page queries, not shut down by
+     *  the model, null for two threads owned by the model
+     * @param params the criteria parameters values
+     */
+    public PagedTableModel(DatabaseManager dbm, String tableName, 
+        String criteria, String orderBy, Class<T> cls, int pageSize, 
+        int cachedPages, Executor loader, Object[] params)
+    {
+        if (pageSize < 1 || cachedPages < 2)
+            throw new IllegalArgumentException("pageSize must be positive " +
+                "and cachedPages greater than 1");
+        
+        this.dbm = Objects.requireNonNull(dbm);
+        this.tableName = Objects.requireNonNull(tableName);
+        this.cls = Objects.requireNonNull(cls);
+        this.params = params == null ? new Object[0] : params;
+        this.mapper = EntityMapper.of(cls);
+        this.pageSize = pageSize;
+        this.cachedPages = cachedPages;
+        this.nearPages = Math.max(1, (cachedPages - 1) / 2);
+        
+        this.where = criteria == null || criteria.isBlank() ? "" : 
+            "where ".concat(criteria);
+        var order = orderBy == null || orderBy.isBlank() ? "" : 
+            " order by ".concat(orderBy);
+        this.others = where.concat(order);
+        
+        this.pages = new LinkedHashMap<>(cachedPages, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<T>> eldest)
+            {
+                return size() > PagedTableModel.this.cachedPages;
+            }
+        };
+        
+        if (loader == null)
+        {
+            this.ownedLoader = Executors.newFixedThreadPool(2, r -> 
+            {
+                var thread = new Thread(r, "ilyriadz.database.util-page-loader");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.loader = ownedLoader;
+        } // end if
+        else
+        {
+            this.ownedLoader = null;
+            this.loader = loader;
+        } // end else
+    }
+    
+    private void requestCount()
+    {
+        counting = true;
+        var requested = generation;
+        var sql = "select count(*) from " + tableName + " " + where;
+        
+        try {
+            loader.execute(() ->
+            {
+                try (var rs = dbm.executeQuery(sql, params))
+                {
+                    var count = rs.next() ? rs.getInt(1) : 0;
+                    SwingUtilities.invokeLater(() -> countLoaded(requested, 
+                        count));
+                } catch (SQLException | RuntimeException ex) {
+                    countFailed(ex);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            countFailed(ex);
+        }
+    }
+    
+    private void countFailed(Exception ex)
+    {
+        Logger.getLogger(PagedTableModel.class.getName()).log(Level.SEVERE, 
+            "row count of " + tableName + " not loaded", ex);
+    }
+    
+    private void countLoaded(int requested, int count)
+    {
+        if (requested != generation)
+            return;
+        
+        rowCount = count;
+        fireTableDataChanged();
+    }
+    
+    /**
+     * query the row count again in the background, drop the loaded pages 
+     * and retry the failed ones, must be called in the event dispatch thread
+     */
+    public void refresh()
+    {
+        generation++;
+        pages.clear();
+        loading.clear();
+        failed.clear();
+        fireTableDataChanged();
+        if (!closed)
+            requestCount();
+    }
+    
+    /**
+     * stop loading pages and shut down the threads owned by the model, must
+     * be called in the event dispatch thread. an executor given to the 
+     * constructor is left running
+     */
+    @Override
+    public void close()
+    {
+        closed = true;
+        generation++;
+        loading.clear();
+        if (ownedLoader != null)
+            ownedLoader.shutdownNow();
+    }
+    
+    /**
+     * @return the number of pages whose query failed since the last refresh
+     */
+    public int failedPageCount()
+    {
+        return failed.size();
+    }
+    
+    /**
+     * @return the number of pages in memory
+     */
+    public int cachedPageCount()
+    {
+        return pages.size();
+    }
+
+    @Override
+    public int getRowCount()
+    {
+        if (!counting && !closed)
+            requestCount();
+        
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount()
+    {
+        return mapper.columns().size();
+    }
+
+    @Override
+    public String getColumnName(int column)
+    {
+        return mapper.columns().get(column);
+    }
+
+    @Override
+    public Class<?> getColumnClass(int columnIndex)
+    {
+        var type = mapper.columnTypes().get(columnIndex);
+        
+        return type.isPrimitive() ? 
+            MethodType.methodType(type).wrap().returnType() : type;
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex)
+    {
+        var row = getRow(rowIndex);
+        
+        return row == null ? null : mapper.get(row, columnIndex);
+    }
+    
+    /**
+     * @param rowIndex the row index
+     * @return the row, or null if its page is not loaded yet
+     */
+    public T getRow(int rowIndex)
+    {
+        var pageIndex = rowIndex / pageSize;
+        var page = pages.get(pageIndex);
+        
+        if (pageIndex != lastPage)
+        {
+            // read ahead in the scroll direction
+            var next = pageIndex + Integer.signum(pageIndex - lastPage);
+            lastPage = pageIndex;
+            if (next >= 0 && next * pageSize < rowCount)
+                requestPage(next);
+        }
+        
+        if (page == null)
+        {
+            requestPage(pageIndex);
+            return null;
+        }
+        
+        var offset = rowIndex - pageIndex * pageSize;
+        return offset < page.size() ? page.get(offset) : null;
+    }
+    
+    private void requestPage(int pageIndex)
+    {
+        if (closed || pages.containsKey(pageIndex) || 
+            failed.contains(pageIndex) || !loading.add(pageIndex))
+            return;
+        
+        var requested = generation;
+        var pageParams = Arrays.copyOf(params, params.length + 2);
+        pageParams[params.length] = pageSize;
+        pageParams[params.length + 1] = (long) pageIndex * pageSize;
+        
+        try {
+            loader.execute(() ->
+            {
+                // the view scrolled away while the request was queued
+                if (!isNear(pageIndex))
+                {
+                    SwingUtilities.invokeLater(() -> pageSkipped(requested, 
+                        pageIndex));
+                    return;
+                }
+                
+                try {
+                    var rows = dbm.selectPrepared(tableName, 
+                        others.concat(" limit ? offset ?"), cls, pageParams);
+                    SwingUtilities.invokeLater(() -> pageLoaded(requested, 
+                        pageIndex, rows));
+                } catch (SQLException | RuntimeException ex) {
+                    SwingUtilities.invokeLater(() -> pageFailed(requested, 
+                        pageIndex, ex));
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            pageFailed(requested, pageIndex, ex);
+        }
+    }
+    
+    private boolean isNear(int pageIndex)
+    {
+        return Math.abs(pageIndex - lastPage) <= nearPages;
+    }
+    
+    private void pageSkipped(int requested, int pageIndex)
+    {
+        // requested again if the view comes back
+        if (requested == generation)
+            loading.remove(pageIndex);
+    }
+    
+    private void pageFailed(int requested, int pageIndex, Exception ex)
+    {
+        if (requested != generation)
+            return;
+        
+        // remembered until refresh, a repaint must not query it again
+        loading.remove(pageIndex);
+        failed.add(pageIndex);
+        Logger.getLogger(PagedTableModel.class.getName()).log(Level.SEVERE, 
+            "page " + pageIndex + " of " + tableName + " not loaded", ex);
+    }
+    
+    private void pageLoaded(int requested, int pageIndex, List<T> rows)
+    {
+        if (requested != generation)
+            return;
+        
+        loading.remove(pageIndex);
+        // a late page would evict a page of the current view
+        if (!isNear(pageIndex))
+            return;
+        
+        pages.put(pageIndex, rows);
+        
+        var first = pageIndex * pageSize;
+        var last = Math.min(rowCount, first + pageSize) - 1;
+        if (first <= last)
+            fireTableRowsUpdated(first, last);
+    }
+}
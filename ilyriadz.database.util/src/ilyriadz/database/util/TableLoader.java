@@ -0,0 +1,172 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package ilyriadz.database.util;
+
+import ilyriadz.database.CancelScope;
+import ilyriadz.database.DatabaseManager;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.swing.JTable;
+import javax.swing.SwingWorker;
+
+/**
+ * loads a table in a background thread and appends the rows to an
+ * EntityTableModel in chunks, so the event dispatch thread is never blocked
+ * by the query.<br>
+ * the number of rows is not known before the end of the load, so the 
+ * progress is indeterminate until the progress property becomes 100 when 
+ * the load is done, the <code>"rows"</code> property reports the number of
+ * loaded rows. <code>stop()</code> cancels the loader with its running 
+ * statement, <code>cancel(true)</code> lets the statement run to its end.
+ * @author sadaoui ilyes
+ * @param <T> the row type
+ */
+public class TableLoader<T> extends SwingWorker<Integer, T>
+{
+    private static final String LOADER_PROPERTY = TableLoader.class.getName();
+    
+    private final DatabaseManager dbm;
+    private final String tableName;
+    private final String others;
+    private final Class<T> cls;
+    private final Object[] params;
+    private final EntityTableModel<T> model;
+    private final CancelScope scope = new CancelScope();
+    private int fetchSize = DatabaseManager.DEFAULT_FETCH_SIZE;
+    private int loaded;
+
+    /**
+     * @param dbm the DatabaseManager
+     * @param tableName the table name
+     * @param others other SQL after table name with <code>?</code> placeholders
+     * @param cls the row class
+     * @param params the parameters values
+     */
+    public TableLoader(DatabaseManager dbm, String tableName, String others, 
+        Class<T> cls, Object... params)
+    {
+        this.dbm = Objects.requireNonNull(dbm);
+        this.tableName = Objects.requireNonNull(tableName);
+        this.others = others == null ? "" : others;
+        this.cls = Objects.requireNonNull(cls);
+        this.params = params;
+        this.model = new EntityTableModel<>(cls);
+    }
+    
+    /**
+     * load a table into a JTable, the load started before by this method for
+     * the same JTable is cancelled. must be called in the event dispatch 
+     * thread.
+     * @param <T> the row type
+     * @param table the JTable showing the rows
+     * @param dbm the DatabaseManager
+     * @param tableName the table name
+     * @param others other SQL after table name with <code>?</code> placeholders
+     * @param cls the row class
+     * @param params the parameters values
+     * @return the started loader
+     */
+    public static <T> TableLoader<T> load(JTable table, DatabaseManager dbm,
+        String tableName, String others, Class<T> cls, Object... params)
+    {
+        if (table.getClientProperty(LOADER_PROPERTY) instanceof TableLoader<?> previous)
+            previous.stop();
+        
+        var loader = new TableLoader<>(dbm, tableName, others, cls, params);
+        table.putClientProperty(LOADER_PROPERTY, loader);
+        table.setModel(loader.model());
+        loader.execute();
+        
+        return loader;
+    }
+    
+    /**
+     * @param fetchSize the number of rows fetched from the database at once
+     * @return this loader
+     */
+    public TableLoader<T> fetchSize(int fetchSize)
+    {
+        this.fetchSize = fetchSize;
+        return this;
+    }
+    
+    /**
+     * cancel this loader and its running statement
+     */
+    public void stop()
+    {
+        scope.cancel();
+        cancel(true);
+    }
+    
+    /**
+     * @return the model receiving the loaded rows
+     */
+    public EntityTableModel<T> model()
+    {
+        return model;
+    }
+
+    @Override
+    protected Integer doInBackground() throws Exception
+    {
+        var event = new TableModelBuiltEvent();
+        event.begin();
+        
+        int[] count = {0};
+        try {
+            return scope.run(dbm, db -> 
+            {
+                try (var rows = db.stream(tableName, others, cls, fetchSize, 
+                    params))
+                {
+                    var iterator = rows.iterator();
+                    while (!isCancelled() && iterator.hasNext())
+                    {
+                        publish(iterator.next());
+                        count[0]++;
+                    } // end while
+                }
+                
+                return count[0];
+            });
+        } finally {
+            event.commit(tableName, cls, count[0]);
+        }
+    }
+
+    @Override
+    protected void process(List<T> chunk)
+    {
+        if (isCancelled())
+            return;
+        
+        model.addRows(chunk);
+        var old = loaded;
+        loaded = model.getRowCount();
+        firePropertyChange("rows", old, loaded);
+    }
+
+    @Override
+    protected void done()
+    {
+        if (isCancelled())
+            return;
+        
+        try {
+            get();
+            setProgress(100);
+        } catch (InterruptedException | CancellationException ex) {
+            // superseded by another load
+        } catch (ExecutionException ex) {
+            Logger.getLogger(TableLoader.class.getName()).log(Level.SEVERE, 
+                null, ex.getCause());
+        }
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package ilyriadz.database.util;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * a JDK Flight Recorder event of a table model filled from a table, 
+ * disabled unless a recording enables 
+ * <code>ilyriadz.database.util.TableModelBuilt</code>
+ * @author sadaoui ilyes
+ */
+@Name("ilyriadz.database.util.TableModelBuilt")
+@Label("Table Model Built")
+@Category({"ilyriadz", "Swing"})
+@Description("The rows of a table queried and put in a table model")
+@Enabled(false)
+@StackTrace(false)
+final class TableModelBuiltEvent extends Event
+{
+    @Label("Table")
+    String table;
+    
+    @Label("Type")
+    Class<?> type;
+    
+    @Label("Rows")
+    long rows;
+    
+    void commit(String table, Class<?> type, long rows)
+    {
+        end();
+        if (!shouldCommit())
+            return;
+        
+        this.table = table;
+        this.type = type;
+        this.rows = rows;
+        commit();
+    }
+}
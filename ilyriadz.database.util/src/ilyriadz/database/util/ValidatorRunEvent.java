@@ -0,0 +1,44 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package ilyriadz.database.util;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * a JDK Flight Recorder event of a field validator run, disabled unless a
+ * recording enables <code>ilyriadz.database.util.ValidatorRun</code>
+ * @author sadaoui ilyes
+ */
+@Name("ilyriadz.database.util.ValidatorRun")
+@Label("Validator Run")
+@Category({"ilyriadz", "Swing"})
+@Description("A field validator run, with the work it triggers")
+@Enabled(false)
+@StackTrace(false)
+final class ValidatorRunEvent extends Event
+{
+    @Label("Field")
+    String field;
+    
+    @Label("Valid")
+    boolean valid;
+    
+    void commit(String field, boolean valid)
+    {
+        end();
+        if (!shouldCommit())
+            return;
+        
+        this.field = field;
+        this.valid = valid;
+        commit();
+    }
+}
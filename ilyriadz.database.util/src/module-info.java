@@ -8,6 +8,7 @@ module ilyriadz.database.util {
     
     requires java.desktop;
     requires java.logging;
+    requires jdk.jfr;
     
     opens ilyriadz.database.util;
     exports ilyriadz.database.util;
@@ -0,0 +1,327 @@
+/*
+ * Copyright 2023 Ilyes Sadaoui.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ilyriadz.database;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * an asynchronous facade of a pooled DatabaseManager.<br>
+ * every call runs on its own thread, a virtual thread when the runtime
+ * supports them, borrows a pooled connection and completes a
+ * CompletableFuture, so the caller thread (the Swing event thread for
+ * example) never blocks on the database.<br>
+ * at most <code>maxInFlight</code> calls run at the same time, the others
+ * wait without blocking the caller. cancelling a future cancels its running
+ * statement by <code>Statement.cancel()</code>.
+ *
+ * @author Ilyes Sadaoui
+ */
+public class AsyncDatabaseManager implements AutoCloseable
+{
+    private final DatabaseManager dbm;
+    private final ExecutorService executor;
+    private final boolean ownExecutor;
+    private final Semaphore permits;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    /**
+     * a future cancelling its running statement
+     */
+    private static final class CancellableFuture<R> extends CompletableFuture<R>
+    {
+        private final CancelScope scope = new CancelScope();
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning)
+        {
+            var cancelled = super.cancel(mayInterruptIfRunning);
+            if (cancelled)
+                scope.cancel();
+
+            return cancelled;
+        }
+    }
+
+    /**
+     * create an asynchronous facade running on virtual threads, or on
+     * maxInFlight platform threads if the runtime has no virtual threads
+     * @param dbm a pooled DatabaseManager
+     * @param maxInFlight the maximum number of calls running at the same
+     *  time, it should not be greater than the pool size
+     * @throws IllegalArgumentException if dbm is not pooled
+     */
+    public AsyncDatabaseManager(DatabaseManager dbm, int maxInFlight)
+    {
+        this(dbm, maxInFlight, newExecutor(maxInFlight), true);
+    }
+
+    /**
+     * create an asynchronous facade running on an executor
+     * @param dbm a pooled DatabaseManager
+     * @param maxInFlight the maximum number of calls running at the same time
+     * @param executor the executor running the calls, it is not shut down
+     *  by <code>close()</code>
+     * @throws IllegalArgumentException if dbm is not pooled
+     */
+    public AsyncDatabaseManager(DatabaseManager dbm, int maxInFlight,
+        ExecutorService executor)
+    {
+        this(dbm, maxInFlight, executor, false);
+    }
+
+    private AsyncDatabaseManager(DatabaseManager dbm, int maxInFlight,
+        ExecutorService executor, boolean ownExecutor)
+    {
+        Objects.requireNonNull(dbm);
+        Objects.requireNonNull(executor);
+        if (!dbm.isPooled())
+            throw new IllegalArgumentException(
+                "the DatabaseManager must be connected in pooled mode");
+        if (maxInFlight < 1)
+            throw new IllegalArgumentException("maxInFlight must be positive: " +
+                maxInFlight);
+
+        this.dbm = dbm;
+        this.executor = executor;
+        this.ownExecutor = ownExecutor;
+        this.permits = new Semaphore(maxInFlight, true);
+    }
+
+    private static ExecutorService newExecutor(int maxInFlight)
+    {
+        // looked up at runtime, this module is compiled for a release
+        // without virtual threads
+        try {
+            var factory = MethodHandles.publicLookup().findStatic(Executors.class,
+                "newVirtualThreadPerTaskExecutor",
+                MethodType.methodType(ExecutorService.class));
+            return (ExecutorService) factory.invokeExact();
+        } catch (Throwable ex) {
+            // no virtual threads, or a preview feature not enabled
+        }
+
+        var count = new AtomicInteger();
+        return Executors.newFixedThreadPool(maxInFlight, r ->
+        {
+            var thread = new Thread(r, "ilyriadz.database-async-" +
+                count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @return the DatabaseManager of this facade
+     */
+    public DatabaseManager databaseManager()
+    {
+        return dbm;
+    }
+
+    /**
+     * @return the number of calls running now
+     */
+    public int inFlight()
+    {
+        return inFlight.get();
+    }
+
+    /**
+     * run a work with the DatabaseManager asynchronously
+     * @param <R> the result type
+     * @param work the work
+     * @return the future result of the work
+     */
+    public <R> CompletableFuture<R> submit(TransactionWork<R> work)
+    {
+        Objects.requireNonNull(work);
+
+        var future = new CancellableFuture<R>();
+        executor.execute(() ->
+        {
+            if (future.isDone())
+                return;
+
+            try {
+                permits.acquire();
+            } catch (InterruptedException ex) {
+                future.completeExceptionally(ex);
+                return;
+            }
+
+            inFlight.incrementAndGet();
+            CancelScope.enter(future.scope);
+            try {
+                if (!future.isDone())
+                    future.complete(work.run(dbm));
+            } catch (Throwable ex) {
+                future.completeExceptionally(ex);
+            } finally {
+                CancelScope.exit();
+                inFlight.decrementAndGet();
+                permits.release();
+            }
+        });
+
+        return future;
+    }
+
+    /**
+     * run a work in a transaction asynchronously
+     * @param <R> the result type
+     * @param work the work
+     * @return the future result of the work
+     * @see DatabaseManager#inTransaction(ilyriadz.database.TransactionWork)
+     */
+    public <R> CompletableFuture<R> inTransactionAsync(TransactionWork<R> work)
+    {
+        return submit(db -> db.inTransaction(work));
+    }
+
+    /**
+     * @param sql the SQL statement
+     * @return the future completed when the statement is executed
+     * @see DatabaseManager#execute(java.lang.String)
+     */
+    public CompletableFuture<Void> executeAsync(String sql)
+    {
+        return submit(db ->
+        {
+            db.execute(sql);
+            return null;
+        });
+    }
+
+    /**
+     * @param sql the SQL update with <code>?</code> placeholders
+     * @param params the parameters values
+     * @return the future number of updated rows
+     * @see DatabaseManager#executeUpdate(java.lang.String, java.lang.Object...)
+     */
+    public CompletableFuture<Integer> executeUpdateAsync(String sql,
+        Object... params)
+    {
+        return submit(db -> db.executeUpdate(sql, params));
+    }
+
+    /**
+     * @param <T> the class type
+     * @param tableName the table name
+     * @param others other SQL after table name with <code>?</code> placeholders
+     * @param cls the reflected class
+     * @param params the parameters values
+     * @return the future list of the mapped rows
+     * @see DatabaseManager#selectPrepared(java.lang.String, java.lang.String, java.lang.Class, java.lang.Object...)
+     */
+    public <T> CompletableFuture<List<T>> selectAsync(String tableName,
+        String others, Class<T> cls, Object... params)
+    {
+        return submit(db -> db.selectPrepared(tableName, others, cls, params));
+    }
+
+    /**
+     * @param <T> the class or record type
+     * @param tableName the table name
+     * @param others other SQL after table name with <code>?</code> placeholders
+     * @param cls the mapped class or record
+     * @param params the parameters values
+     * @return the future list of the mapped rows
+     * @see DatabaseManager#project(java.lang.String, java.lang.String, java.lang.Class, java.lang.Object...)
+     */
+    public <T> CompletableFuture<List<T>> projectAsync(String tableName,
+        String others, Class<T> cls, Object... params)
+    {
+        return submit(db -> db.project(tableName, others, cls, params));
+    }
+
+    /**
+     * @param tableName the table name
+     * @param columns the columns names
+     * @param values the values to be inserted
+     * @return the future number of inserted rows
+     * @see DatabaseManager#insertPrepared(java.lang.String, java.util.List, java.lang.Object...)
+     */
+    public CompletableFuture<Integer> insertAsync(String tableName,
+        List<String> columns, Object... values)
+    {
+        return submit(db -> db.insertPrepared(tableName, columns, values));
+    }
+
+    /**
+     * @param <T> the class type
+     * @param tableName the table name
+     * @param cls the reflected class
+     * @param entities the objects to be inserted
+     * @param batchSize the number of rows sent and committed at once
+     * @return the future number of inserted rows
+     * @see DatabaseManager#insertAll(java.lang.String, java.lang.Class, java.lang.Iterable, int)
+     */
+    public <T> CompletableFuture<Long> insertAllAsync(String tableName,
+        Class<T> cls, Iterable<? extends T> entities, int batchSize)
+    {
+        return submit(db -> db.insertAll(tableName, cls, entities, batchSize));
+    }
+
+    /**
+     * @param tableName the table name
+     * @param columns the columns names
+     * @param values new values to update
+     * @param criteria the <code>WHERE</code> clause criteria with
+     *  <code>?</code> placeholders
+     * @param params the criteria parameters values
+     * @return the future number of updated rows
+     * @see DatabaseManager#updatePrepared(java.lang.String, java.util.List, java.util.List, java.lang.String, java.lang.Object...)
+     */
+    public CompletableFuture<Integer> updateAsync(String tableName,
+        List<String> columns, List<?> values, String criteria, Object... params)
+    {
+        return submit(db -> db.updatePrepared(tableName, columns, values,
+            criteria, params));
+    }
+
+    /**
+     * @param tableName the table name
+     * @param criteria the <code>WHERE</code> clause criteria with
+     *  <code>?</code> placeholders
+     * @param params the criteria parameters values
+     * @return the future number of deleted rows
+     * @see DatabaseManager#deletePrepared(java.lang.String, java.lang.String, java.lang.Object...)
+     */
+    public CompletableFuture<Integer> deleteAsync(String tableName,
+        String criteria, Object... params)
+    {
+        return submit(db -> db.deletePrepared(tableName, criteria, params));
+    }
+
+    /**
+     * shut down the executor if it was created by this facade, the running
+     * calls are completed
+     */
+    @Override
+    public void close()
+    {
+        if (ownExecutor)
+            executor.shutdown();
+    }
+}
@@ -0,0 +1,312 @@
+/*
+ * Copyright 2023 Ilyes Sadaoui.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ilyriadz.database;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+
+/**
+ * loads a delimited file into a table.<br>
+ * the file is streamed by batches of lines, a batch is parsed in parallel
+ * on the common fork-join pool while the previous batch is inserted, so
+ * reading, validating and inserting overlap and at most two batches are held
+ * in memory. the statements run on the caller thread, in its transaction
+ * if it has one.<br>
+ * a batch failed by a unique key violation is inserted again row by row
+ * and the rows of a key already in the table are rejected, out of a 
+ * transaction only: in a transaction the rows of the failed batch are not
+ * rolled back and the exception is thrown.
+ *
+ * @param <T> the class type
+ * @author Ilyes Sadaoui
+ */
+final class BulkLoader<T>
+{
+    private record Line(long number, String text)
+    {
+    }
+
+    /**
+     * a parsed line, its row or its reject line
+     */
+    private record Parsed<T>(Line line, T row, String reject)
+    {
+    }
+    
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    private final DatabaseManager dbm;
+    private final String tableName;
+    private final Class<T> cls;
+    private final LoadSettings settings;
+    private final RowParser<? extends T> parser;
+    private final Consumer<? super LoadStatistics> progress;
+    private long start;
+    private long lineNumber;
+    private long read;
+    private long inserted;
+    private long rejected;
+
+    BulkLoader(DatabaseManager dbm, String tableName, Class<T> cls,
+        LoadSettings settings, RowParser<? extends T> parser,
+        Consumer<? super LoadStatistics> progress)
+    {
+        this.dbm = Objects.requireNonNull(dbm);
+        this.tableName = Objects.requireNonNull(tableName);
+        this.cls = Objects.requireNonNull(cls);
+        this.settings = Objects.requireNonNull(settings);
+        this.parser = Objects.requireNonNull(parser);
+        this.progress = Objects.requireNonNull(progress);
+    }
+
+    LoadStatistics load(Path source, Path rejects) throws IOException, SQLException
+    {
+        start = System.nanoTime();
+        try (var reader = Files.newBufferedReader(source, settings.charset());
+             var rejectWriter = Files.newBufferedWriter(rejects, settings.charset()))
+        {
+            if (settings.header() && reader.readLine() != null)
+                lineNumber++;
+
+            var pending = parse(readBatch(reader));
+            while (pending != null)
+            {
+                // the next batch is read and parsed during the insertion
+                var next = parse(readBatch(reader));
+
+                var rows = new ArrayList<Parsed<T>>(settings.batchSize());
+                for (var parsed : join(pending))
+                {
+                    if (parsed.reject() == null)
+                        rows.add(parsed);
+                    else
+                        reject(rejectWriter, parsed.reject());
+                } // end for
+
+                if (!rows.isEmpty())
+                    inserted += insert(rows, rejectWriter);
+
+                progress.accept(statistics());
+                pending = next;
+            } // end while
+        }
+
+        return statistics();
+    }
+
+    /**
+     * insert the rows of a batch, again row by row if a row has a key 
+     * already in the table
+     * @return the number of inserted rows
+     */
+    private long insert(List<Parsed<T>> batch, BufferedWriter rejectWriter)
+        throws IOException, SQLException
+    {
+        var rows = new ArrayList<T>(batch.size());
+        for (var parsed : batch)
+            rows.add(parsed.row());
+        
+        try {
+            return dbm.insertAll(tableName, cls, rows, settings.batchSize());
+        } catch (SQLException ex) {
+            // the failed batch is rolled back out of a transaction only
+            if (!isUniqueViolation(ex) || dbm.inTransaction())
+                throw ex;
+        }
+        
+        long count = 0;
+        for (var parsed : batch)
+        {
+            try {
+                count += dbm.insertAll(tableName, cls, List.of(parsed.row()), 1);
+            } catch (SQLException ex) {
+                if (!isUniqueViolation(ex))
+                    throw ex;
+                
+                reject(rejectWriter, rejectLine(parsed.line(), 
+                    "duplicate key: " + reason(ex)));
+            }
+        } // end for
+        
+        return count;
+    }
+    
+    /**
+     * @return the first line of the message of ex without the statement
+     */
+    private static String reason(SQLException ex)
+    {
+        var message = ex.getMessage() == null ? "" : 
+            ex.getMessage().lines().findFirst().orElse("");
+        var statement = message.indexOf("; SQL statement");
+        
+        return statement < 0 ? message : message.substring(0, statement);
+    }
+    
+    /**
+     * @return true if ex or one of its chained exceptions is a unique key
+     *  violation
+     */
+    private static boolean isUniqueViolation(SQLException ex)
+    {
+        for (var next = ex; next != null; next = next.getNextException())
+        {
+            if (UNIQUE_VIOLATION.equals(next.getSQLState()) || 
+                next.getCause() instanceof SQLException cause && 
+                UNIQUE_VIOLATION.equals(cause.getSQLState()))
+                return true;
+        } // end for
+        
+        return false;
+    }
+    
+    private void reject(BufferedWriter rejectWriter, String reject) 
+        throws IOException
+    {
+        rejectWriter.write(reject);
+        rejectWriter.newLine();
+        rejected++;
+    }
+    
+    private LoadStatistics statistics()
+    {
+        return new LoadStatistics(read, inserted, rejected,
+            Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private List<Line> readBatch(BufferedReader reader) throws IOException
+    {
+        var lines = new ArrayList<Line>(settings.batchSize());
+        String text;
+        while (lines.size() < settings.batchSize() &&
+            (text = reader.readLine()) != null)
+        {
+            lineNumber++;
+            if (text.isBlank())
+                continue;
+
+            lines.add(new Line(lineNumber, text));
+            read++;
+        } // end while
+
+        return lines;
+    }
+
+    private CompletableFuture<List<Parsed<T>>> parse(List<Line> lines)
+    {
+        if (lines.isEmpty())
+            return null;
+
+        return CompletableFuture.supplyAsync(() -> lines.parallelStream()
+            .map(this::parse)
+            .toList());
+    }
+
+    private Parsed<T> parse(Line line)
+    {
+        String reason;
+        try {
+            T row = parser.parse(split(line.text(), settings.delimiter()));
+            if (row != null)
+                return new Parsed<>(line, row, null);
+
+            reason = "no row";
+        } catch (IllegalArgumentException ex) {
+            reason = ex.getMessage();
+        }
+
+        return new Parsed<>(line, null, rejectLine(line, reason));
+    }
+    
+    /**
+     * the line followed by the delimiter and the quoted reason
+     */
+    private String rejectLine(Line line, String reason)
+    {
+        return line.text() + settings.delimiter() +
+            quote("line " + line.number() + ": " + reason);
+    }
+
+    private static <R> R join(CompletableFuture<R> future)
+    {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtime)
+                throw runtime;
+            if (ex.getCause() instanceof Error error)
+                throw error;
+            throw ex;
+        }
+    }
+
+    /**
+     * split a line by a delimiter, a field quoted by <code>"</code> can hold
+     * the delimiter and doubled quotes
+     * @throws IllegalArgumentException if a quoted field is not terminated
+     */
+    static List<String> split(String line, char delimiter)
+    {
+        var fields = new ArrayList<String>();
+        var field = new StringBuilder();
+        var quoted = false;
+
+        for (int i = 0; i < line.length(); i++)
+        {
+            var c = line.charAt(i);
+            if (quoted)
+            {
+                if (c != '"')
+                    field.append(c);
+                else if (i + 1 < line.length() && line.charAt(i + 1) == '"')
+                    field.append(line.charAt(++i));
+                else
+                    quoted = false;
+            }
+            else if (c == '"')
+                quoted = true;
+            else if (c == delimiter)
+            {
+                fields.add(field.toString());
+                field.setLength(0);
+            }
+            else
+                field.append(c);
+        } // end for
+
+        if (quoted)
+            throw new IllegalArgumentException("unterminated quoted field");
+
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static String quote(String text)
+    {
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2023 Ilyes Sadaoui.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ilyriadz.database;
+
+/**
+ * a snapshot of a cache metrics
+ *
+ * @param hits the number of lookups served by the cache
+ * @param misses the number of lookups not found in the cache
+ * @param evictions the number of entries removed to respect the cache bounds
+ * @param size the number of entries in the cache
+ *
+ * @author Ilyes Sadaoui
+ */
+public record CacheStatistics(long hits, long misses, long evictions, long size)
+{
+    /**
+     * @return the ratio of lookups served by the cache, between 0 and 1
+     */
+    public double hitRatio()
+    {
+        var lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2023 Ilyes Sadaoui.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ilyriadz.database;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * the rows of a query as the typed values of the mapped fields, kept by
+ * the result cache.<br>
+ * the values are read once by the typed getters of the {@link EntityMapper}
+ * and every hit creates new objects from them, so each caller gets its own
+ * objects and never the objects of another caller.
+ *
+ * @author Ilyes Sadaoui
+ * @param <T> the row type
+ */
+final class CachedRows<T>
+{
+    private final EntityMapper<T> mapper;
+    private final boolean[] selected;
+    private final boolean[] mutable;
+    private final List<Object[]> rows;
+
+    private CachedRows(EntityMapper<T> mapper, boolean[] selected, 
+        List<Object[]> rows)
+    {
+        this.mapper = mapper;
+        this.selected = selected;
+        this.rows = rows;
+        
+        var types = mapper.propertyTypes();
+        mutable = new boolean[types.size()];
+        for (int k = 0; k < mutable.length; k++)
+            mutable[k] = types.get(k).isArray() || 
+                Date.class.isAssignableFrom(types.get(k));
+    }
+    
+    /**
+     * read all the remaining rows of a ResultSet
+     * @param rs the ResultSet
+     * @param mapper the mapper of the row type
+     * @param objects the list receiving the objects of the rows
+     * @return the read rows
+     * @throws SQLException if SQL exception occurred
+     */
+    static <T> CachedRows<T> readAll(ResultSet rs, EntityMapper<T> mapper, 
+        List<T> objects) throws SQLException
+    {
+        var indexes = mapper.propertyColumns(rs.getMetaData());
+        var selected = new boolean[indexes.length];
+        for (int k = 0; k < indexes.length; k++)
+            selected[k] = indexes[k] != 0;
+        
+        var cached = new CachedRows<>(mapper, selected, new ArrayList<>());
+        while (rs.next())
+        {
+            var values = mapper.values(rs, indexes);
+            cached.rows.add(values);
+            objects.add(cached.create(values));
+        } // end while
+        
+        return cached;
+    }
+    
+    /**
+     * map the rows to new objects
+     * @return a new list of new objects
+     */
+    List<T> read()
+    {
+        var objects = new ArrayList<T>(rows.size());
+        for (var values : rows)
+            objects.add(create(values));
+        
+        return objects;
+    }
+    
+    /**
+     * the mutable values are copied like a driver would, a cached value is
+     * never held by an object
+     */
+    private T create(Object[] values)
+    {
+        var copied = values;
+        for (int k = 0; k < mutable.length; k++)
+        {
+            if (!mutable[k] || values[k] == null)
+                continue;
+            
+            if (copied == values)
+                copied = values.clone();
+            copied[k] = values[k] instanceof byte[] bytes ? bytes.clone() :
+                ((Date) values[k]).clone();
+        } // end for
+        
+        return mapper.create(copied, selected);
+    }
+    
+    /**
+     * @return the number of rows
+     */
+    int size()
+    {
+        return rows.size();
+    }
+}
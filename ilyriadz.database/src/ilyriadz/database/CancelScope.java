@@ -0,0 +1,117 @@
+/*
+ * Copyright 2023 Ilyes Sadaoui.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ilyriadz.database;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * tracks the statement run by a thread so another thread can cancel it,
+ * the operations of a DatabaseManager report their statement to the scope
+ * of the current thread if there is one.<br>
+ * a work run by {@link #run(DatabaseManager, TransactionWork)} is stopped by
+ * {@link #cancel()} from any thread: its running statement is cancelled by
+ * <code>Statement.cancel()</code> and its next statements throw a 
+ * SQLException.
+ *
+ * @author Ilyes Sadaoui
+ */
+public final class CancelScope
+{
+    private static final ThreadLocal<CancelScope> CURRENT = new ThreadLocal<>();
+
+    private Statement running;
+    private boolean cancelled;
+
+    public CancelScope()
+    {
+    }
+    
+    /**
+     * run a work in this scope on the current thread
+     * @param <R> the result type
+     * @param dbm the DatabaseManager
+     * @param work the work
+     * @return the result of the work
+     * @throws SQLException if SQL exception occurred or the scope is
+     *  cancelled
+     */
+    public <R> R run(DatabaseManager dbm, TransactionWork<R> work) 
+        throws SQLException
+    {
+        var previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return work.run(dbm);
+        } finally {
+            CURRENT.set(previous);
+        }
+    }
+
+    static void enter(CancelScope scope)
+    {
+        CURRENT.set(scope);
+    }
+
+    static void exit()
+    {
+        CURRENT.remove();
+    }
+
+    /**
+     * called before a statement is executed by the current thread
+     * @param statement the statement, null when the execution is done
+     * @throws SQLException if the scope is already cancelled
+     */
+    static void running(Statement statement) throws SQLException
+    {
+        var scope = CURRENT.get();
+        if (scope != null)
+            scope.set(statement);
+    }
+
+    private synchronized void set(Statement statement) throws SQLException
+    {
+        if (cancelled && statement != null)
+            throw new SQLException("the operation is cancelled");
+
+        running = statement;
+    }
+
+    /**
+     * cancel the running statement and the next ones
+     */
+    public synchronized void cancel()
+    {
+        cancelled = true;
+        if (running != null)
+        {
+            try {
+                running.cancel();
+            } catch (SQLException ex) {
+                // the statement is already done or closed
+            }
+        }
+    }
+
+    /**
+     * @return true if this scope is cancelled
+     */
+    public synchronized boolean isCancelled()
+    {
+        return cancelled;
+    }
+}
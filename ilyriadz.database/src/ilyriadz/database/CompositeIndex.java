@@ -0,0 +1,55 @@
+/*
+ * Copyright 2023 Ilyes Sadaoui.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ilyriadz.database;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Repeatable;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * annotation to declare an index on many columns of a class table, the
+ * index is created by <code>createNotExistTable(String, Class)</code>.<br>
+ * a covering index lists the other columns read by a query in 
+ * <code>include</code>, they are added after the key columns so the query
+ * is answered from the index only.
+ * @author Ilyes Sadaoui
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+@Repeatable(CompositeIndexes.class)
+public @interface CompositeIndex {
+    /**
+     * @return the key columns in order
+     */
+    String[] columns();
+    
+    /**
+     * @return the columns stored in the index after the key columns
+     */
+    String[] include() default {};
+    
+    /**
+     * @return true for a unique index on the key columns
+     */
+    boolean unique() default false;
+    
+    /**
+     * @return the index name, named after the table and the columns if empty
+     */
+    String name() default "";
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright 2023 Ilyes Sadaoui.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ilyriadz.database;
+
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * a bounded pool of connections used by a pooled DatabaseManager.<br>
+ * the idle connections are reused in LIFO order so the hottest connection
+ * is borrowed first, the idle connections above <code>minIdle</code> are
+ * closed by a background evictor after <code>idleTimeout</code>.
+ *
+ * @author Ilyes Sadaoui
+ */
+final class ConnectionPool implements AutoCloseable
+{
+    private final ConnectionFactory factory;
+    private final PoolSettings settings;
+    private final Semaphore permits;
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final AtomicInteger open = new AtomicInteger();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final LongAdder borrowed = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+    private final LongAdder invalidated = new LongAdder();
+    private final ScheduledExecutorService evictor;
+    private volatile boolean closed;
+
+    ConnectionPool(ConnectionFactory factory, PoolSettings settings)
+        throws SQLException
+    {
+        this.factory = factory;
+        this.settings = settings;
+        this.permits = new Semaphore(settings.maxSize(), true);
+
+        // open the minimum idle connections now, so a bad url or bad
+        // credentials fail in connect() and not in the first query
+        try {
+            for (int i = 0; i < Math.max(1, settings.minIdle()); i++)
+                idle.offerFirst(create());
+        } catch (SQLException ex) {
+            PooledConnection pc;
+            while ((pc = idle.pollFirst()) != null)
+                discard(pc);
+            throw ex;
+        }
+
+        if (settings.idleTimeout().isZero())
+            evictor = null;
+        else
+        {
+            evictor = Executors.newSingleThreadScheduledExecutor(r ->
+            {
+                var thread = new Thread(r, "ilyriadz.database-pool-evictor");
+                thread.setDaemon(true);
+                return thread;
+            });
+            var period = Math.max(1000, settings.idleTimeout().toMillis() / 2);
+            evictor.scheduleWithFixedDelay(this::evictIdle, period, period,
+                TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private PooledConnection create() throws SQLException
+    {
+        var connection = factory.open();
+        open.incrementAndGet();
+        return new PooledConnection(connection);
+    }
+
+    private void discard(PooledConnection pc)
+    {
+        open.decrementAndGet();
+        pc.close();
+    }
+
+    private boolean isValid(PooledConnection pc)
+    {
+        if (settings.validationTimeout() == 0)
+            return true;
+        try {
+            return pc.connection().isValid(settings.validationTimeout());
+        } catch (SQLException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * borrow a connection, waiting at most <code>borrowTimeout</code>
+     * @return a valid connection
+     * @throws SQLTransientConnectionException if no connection is released
+     *  before the borrow timeout
+     * @throws SQLException if the pool is closed or a new connection failed
+     */
+    PooledConnection borrow() throws SQLException
+    {
+        if (closed)
+            throw new SQLException("the connection pool is closed");
+
+        waiting.incrementAndGet();
+        try {
+            if (!permits.tryAcquire(settings.borrowTimeout().toNanos(),
+                TimeUnit.NANOSECONDS))
+            {
+                timeouts.increment();
+                throw new SQLTransientConnectionException(
+                    "no connection available after " + settings.borrowTimeout() +
+                    " (" + settings.maxSize() + " connections in use)");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("interrupted while waiting for a connection", ex);
+        } finally {
+            waiting.decrementAndGet();
+        }
+
+        try {
+            PooledConnection pc;
+            while ((pc = idle.pollFirst()) != null)
+            {
+                if (isValid(pc))
+                    break;
+                invalidated.increment();
+                discard(pc);
+            } // end while
+
+            if (pc == null)
+                pc = create();
+
+            borrowed.increment();
+            return pc;
+        } catch (SQLException | RuntimeException ex) {
+            permits.release();
+            throw ex;
+        }
+    }
+
+    /**
+     * give back a borrowed connection, an uncommitted transaction is
+     * rolled back and the auto-commit mode is restored
+     * @param pc the borrowed connection
+     */
+    void release(PooledConnection pc)
+    {
+        try {
+            var connection = pc.connection();
+            if (closed || connection.isClosed())
+                discard(pc);
+            else
+            {
+                if (!connection.getAutoCommit())
+                {
+                    connection.rollback();
+                    connection.setAutoCommit(true);
+                }
+                pc.touch();
+                idle.offerFirst(pc);
+            }
+        } catch (SQLException ex) {
+            discard(pc);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void evictIdle()
+    {
+        var limit = System.nanoTime() - settings.idleTimeout().toNanos();
+        var iterator = idle.descendingIterator();
+        var expired = new ArrayList<PooledConnection>();
+        // the borrowed connections are not idle, they do not count
+        var idleCount = idle.size();
+
+        while (iterator.hasNext() && idleCount - expired.size() > settings.minIdle())
+        {
+            var pc = iterator.next();
+            if (pc.lastUsed() - limit > 0)
+                break; // the next connections were used more recently
+            expired.add(pc);
+        } // end while
+
+        for (var pc : expired)
+        {
+            // remove() fails if a borrower took the connection meanwhile
+            if (idle.remove(pc))
+            {
+                evicted.increment();
+                discard(pc);
+            }
+        } // end for
+    }
+
+    /**
+     * @return a snapshot of the pool metrics
+     */
+    PoolStatistics statistics()
+    {
+        var openCount = open.get();
+        var idleCount = idle.size();
+        return new PoolStatistics(settings.maxSize(), openCount, idleCount,
+            Math.max(0, openCount - idleCount), waiting.get(), borrowed.sum(),
+            timeouts.sum(), evicted.sum(), invalidated.sum());
+    }
+
+    /**
+     * close the idle connections, the borrowed connections are closed
+     * when they are released
+     */
+    @Override
+    public void close()
+    {
+        closed = true;
+        if (evictor != null)
+            evictor.shutdownNow();
+
+        PooledConnection pc;
+        while ((pc = idle.pollFirst()) != null)
+            discard(pc);
+    }
+}
@@ -15,21 +15,43 @@
  */
 package ilyriadz.database;
 
-import java.lang.reflect.InvocationTargetException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.sql.Connection;
 import java.sql.Driver;
 import java.sql.DriverManager;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.sql.Savepoint;
 import java.sql.Statement;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
-import java.util.logging.Level;
-import java.util.logging.Logger;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.management.JMException;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
 
 /**
  * this class is wrapper of Statement object with helpers methods to
@@ -40,16 +62,56 @@ import java.util.stream.Collectors;
  *  or you can pass a driver instance to <code>setDriver(Driver)</code> method<br>
  * you can implements other database systems by implements this class 
  * <code>driver()</code> and 
- * <code>jdbc()</code> methods.
+ * <code>jdbc()</code> methods.<br>
+ * by default a DatabaseManager holds one Connection and one Statement shared
+ * by all the callers, connect with a {@link PoolSettings} to borrow a
+ * pooled connection for every operation instead, so many threads can
+ * query in parallel without closing each other's ResultSet.
  * 
  * @author Ilyes Sadaoui
  * @version 1.0
  */
-public abstract class DatabaseManager 
+public abstract class DatabaseManager implements AutoCloseable
 {
+    /**
+     * the fetch size used by <code>stream</code> when none is given
+     */
+    public static final int DEFAULT_FETCH_SIZE = 500;
+    
+    /**
+     * the batch size used by <code>insertAll</code> when none is given
+     */
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+    
     private Connection connection;
     private Statement statement;
     private Driver driver = null;
+    private PooledConnection shared;
+    private ConnectionPool pool;
+    private final StatementCache.Shared statementCache = new StatementCache.Shared();
+    private final ThreadLocal<Transaction> transaction = new ThreadLocal<>();
+    private volatile QueryCache resultCache;
+    private volatile StatementMetrics metrics;
+    private volatile SlowQueryLog slowQueryLog;
+    private volatile IndexAdvisor indexAdvisor;
+    private ObjectName metricsName;
+    
+    /**
+     * the connection pinned to a thread by <code>begin()</code>
+     */
+    private static final class Transaction
+    {
+        private final PooledConnection connection;
+        private final int previousIsolation;
+        // replayed on the result cache when the transaction ends
+        private final Set<String> written = new HashSet<>();
+        
+        private Transaction(PooledConnection connection, int previousIsolation)
+        {
+            this.connection = connection;
+            this.previousIsolation = previousIsolation;
+        }
+    }
 
     protected DatabaseManager() 
     {
@@ -78,23 +140,31 @@ public abstract class DatabaseManager
             Class.forName(driver());
     }
     
-    private void initConnection(String databaseName, String name, 
+    private Connection openConnection(String databaseName, String name, 
         String password) throws SQLException
     {
         if (driver == null)
-            connection = DriverManager.getConnection(jdbc().concat(databaseName), name, password);
+            return DriverManager.getConnection(jdbc().concat(databaseName), name, password);
         else
         {
             Properties props = new Properties();
             props.put("user", name);
             props.put("password", password);
-            connection = driver.connect(jdbc().concat(databaseName), props);
+            return driver.connect(jdbc().concat(databaseName), props);
         }
     }
     
+    private void initConnection(String databaseName, String name, 
+        String password) throws SQLException
+    {
+        connection = openConnection(databaseName, name, password);
+        shared = new PooledConnection(connection);
+    }
+    
     private void load(String databaseName, String name, String passworld) throws SQLException, 
         ClassNotFoundException
     {
+        close();
         loadDriver();
         initConnection(databaseName, name, passworld);
     }
@@ -126,6 +196,44 @@ public abstract class DatabaseManager
         connect(databaseName, "", "");
     }
     
+    /**
+     * connect to the database file named databaseName in pooled mode<br>
+     * every operation borrows a connection from a bounded pool and gives it
+     * back when it is done, the ResultSet returned by <code>executeQuery</code>
+     * and <code>select</code> holds its connection until it is closed.
+     * @param databaseName the database file name
+     * @param name the authentication name
+     * @param password the authentication password
+     * @param settings the pool settings
+     * @throws SQLException if SQL exception occurred
+     * @throws ClassNotFoundException if driver class not found 
+     * @see PoolSettings#of(int) 
+     */
+    public void connect(String databaseName, String name, String password,
+        PoolSettings settings) throws SQLException, ClassNotFoundException
+    {
+        Objects.requireNonNull(settings);
+        
+        close();
+        loadDriver();
+        pool = new ConnectionPool(() -> 
+            openConnection(databaseName, name, password), settings);
+    }
+    
+    /**
+     * connect to the database file named databaseName in pooled mode
+     * @param databaseName the database file name
+     * @param settings the pool settings
+     * @throws SQLException if SQL exception occurred
+     * @throws ClassNotFoundException if driver class not found 
+     * @see #connect(java.lang.String, java.lang.String, java.lang.String, ilyriadz.database.PoolSettings) 
+     */
+    public void connect(String databaseName, PoolSettings settings) 
+        throws SQLException, ClassNotFoundException
+    {
+        connect(databaseName, "", "", settings);
+    }
+    
     /**
      * connect to the database file named databaseName
      * @param databaseName the database file name
@@ -186,7 +294,23 @@ public abstract class DatabaseManager
      */
     public final void execute(String sql) throws SQLException
     {
-        statement.execute(sql);
+        try {
+            if (pool == null)
+            {
+                run(statement(), sql, st -> st.execute(sql));
+                return;
+            }
+            
+            withConnection(c ->
+            {
+                try (var st = c.createStatement())
+                {
+                    return run(st, sql, s -> s.execute(sql));
+                }
+            });
+        } finally {
+            written(sql);
+        }
     }
     
     /**
@@ -197,7 +321,23 @@ public abstract class DatabaseManager
      */
     public final ResultSet executeQuery(String sql) throws SQLException
     {
-        return statement.executeQuery(sql);
+        if (pool == null)
+            return run(statement(), sql, st -> st.executeQuery(sql));
+        
+        var pc = acquire();
+        try {
+            var st = pc.connection().createStatement();
+            try {
+                return LeasedResultSet.wrap(
+                    run(st, sql, s -> s.executeQuery(sql)), st, releaser(pc));
+            } catch (SQLException | RuntimeException ex) {
+                st.close();
+                throw ex;
+            }
+        } catch (SQLException | RuntimeException ex) {
+            release(pc);
+            throw ex;
+        }
     }
     
     /**
@@ -207,324 +347,2142 @@ public abstract class DatabaseManager
      */
     public final void executeUpdate(String sql) throws SQLException
     {
-        statement.executeUpdate(sql);
+        try {
+            if (pool == null)
+            {
+                run(statement(), sql, st -> st.executeUpdate(sql));
+                return;
+            }
+            
+            withConnection(c ->
+            {
+                try (var st = c.createStatement())
+                {
+                    return run(st, sql, s -> s.executeUpdate(sql));
+                }
+            });
+        } finally {
+            written(sql);
+        }
     }
     
     /**
      * the Statement object of this DatabaseManager
      * @return Statement object
+     * @throws IllegalStateException if this DatabaseManager is pooled, a 
+     *  pooled DatabaseManager has no shared Statement
      */
     public final Statement statement()
     {
+        if (pool != null)
+            throw new IllegalStateException(
+                "a pooled DatabaseManager has no shared Statement");
+        
         return statement;
     }
     
-    private StringBuilder buildString(String... str)
+    /**
+     * @return true if this DatabaseManager is connected in pooled mode
+     */
+    public final boolean isPooled()
     {
-        var builder = new StringBuilder();
-        for (var s : str)
-            builder.append(s);
-        
-        return builder;
+        return pool != null;
     }
     
-    /**<code>CREATE TABLE</code> statement<br>
-     * create a table in the database
-     * @param tableName the table name
-     * @param columns the table columns<br> &nbsp;&nbsp;&nbsp;example of a column: 
-     * <code>id integer primary key</code> 
-     * @throws SQLException if SQL exception occurred
+    /**
+     * the connection pool metrics
+     * @return a snapshot of the pool metrics
+     * @throws IllegalStateException if this DatabaseManager is not pooled
      */
-    public void createTable(String tableName, String... columns) 
-        throws SQLException
+    public final PoolStatistics poolStatistics()
     {
-        Objects.requireNonNull(tableName);
-        
-        var builder = buildString(
-            "create table ",
-            tableName, 
-            "(",
-            Arrays.asList(columns).stream()
-                .collect(Collectors.joining(",")),
-            ")");
+        if (pool == null)
+            throw new IllegalStateException("this DatabaseManager is not pooled");
         
-        execute(builder.toString());
+        return pool.statistics();
     }
     
-    /**<code>CREATE TABLE IF NOT EXISTS</code> statement<br>
-     * create a table if not exists
-     * @param tableName the table name
-     * @param columns the table columns.<br> &nbsp;&nbsp;&nbsp;example of a column: 
-     * <code>address varchar(255) not null</code>
-     * @throws SQLException if SQL exception occurred
+    /**
+     * borrow a connection from the pool, or the shared connection if this
+     * DatabaseManager is not pooled.<br>
+     * every acquired connection must be released.
      */
-    public void createNotExistTable(String tableName, String... columns) 
-        throws SQLException
+    PooledConnection acquire() throws SQLException
     {
-        Objects.requireNonNull(tableName);
-        
-        var builder = buildString(
-            "create table if not exists ",
-            tableName, 
-            "(",
-            Arrays.asList(columns).stream()
-                .collect(Collectors.joining(",")),
-            ")");
+        var tx = transaction.get();
+        if (tx != null)
+            return tx.connection;
+        if (pool != null)
+            return pool.borrow();
+        if (shared == null)
+            throw new SQLException("not connected");
         
-        execute(builder.toString());
+        return shared;
     }
     
-    /**<code>CREATE TABLE IF NOT EXISTS</code> statement<br>
-     * create a table if not exists from a class<br>
-     * the field name is a column if the field tagged with <code>
-     * {@literal @}TypeProperties</code> annotation.<br>
-     * warning: if you are using the module system you must open your module or
-     *  package to <code>ilyria.database</code> module to use this method properly.<br>
-     * DatabaseManager support int, long, float, double, boolean, String types<br>
-     * <code>int</code>     represented as SQL <code>INTEGER</code><br>
-     * <code>long</code>    represented as SQL <code>BIGINT</code><br>
-     * <code>float</code>   represented as SQL <code>FLOAT</code><br>
-     * <code>double</code>  represented as SQL <code>DOUBLE</code><br>
-     * <code>boolean</code> represented as SQL <code>BOOLEAN</code><br>
-     * reference types represented as SQL <code>VARCHAR</code>
-     * @param <T> the class type
-     * @param tableName the table name
-     * @param cls the class to be reflected
-     * @throws SQLException if SQL exception occurred
-     */
-    public <T> void createNotExistTable(String tableName, Class<T> cls) 
-        throws SQLException
+    void release(PooledConnection pc)
     {
-        Objects.requireNonNull(tableName);
-        Objects.requireNonNull(cls);
-        
-        var columns = Arrays.asList(cls.getDeclaredFields())
-                .stream()
-                .filter(e -> e.getAnnotation(TypeProperties.class) != null)
-                .map(field ->
-                {
-                    var name = field.getName();
-                    var declarationType = field.getAnnotation(TypeProperties.class);
-                    
-                    var fieldType = switch (field.getType().getSimpleName()
-                        .toLowerCase())
-                    {
-                        case "int", "integer" -> "integer";
-                        case "long" -> "bigint";
-                        case "float" -> "float";
-                        case "double" -> "double";
-                        case "boolean" -> "boolean";
-                        default -> "varchar";
-                    };
-                    
-                    if (declarationType != null)
-                    {
-                        name += " ".concat(fieldType).concat(" ").concat(declarationType.value());
-                    }
-                    
-                    return name;
-                })
-                .toList();
-        
-        var builder = buildString(
-            "create table if not exists ",
-            tableName, 
-            "(",
-            columns.stream()
-                .collect(Collectors.joining(",")),
-            ")");
-        
-        execute(builder.toString());
+        // a transaction connection is released by commit() or rollback()
+        if (pool != null && !pc.pinned())
+            pool.release(pc);
     }
     
     /**
-     * <code>SELECT</code> query
-     * @param tableName the table name
-     * @param other other SQL after table name
-     * @return ResultSet object
-     * @throws SQLException if SQL exception occurred
+     * @return the release action of a connection held by a ResultSet, 
+     *  captured when the connection is acquired because the ResultSet can
+     *  be closed after the end of the transaction owning the connection
      */
-    public ResultSet select(String tableName, String other) throws SQLException
+    Runnable releaser(PooledConnection pc)
     {
-        return executeQuery("select * from ".concat(tableName).concat(" ")
-            .concat(other));
+        return pc.pinned() ? () -> {} : () -> release(pc);
+    }
+    
+    <R> R withConnection(SqlFunction<Connection, R> work) throws SQLException
+    {
+        var pc = acquire();
+        try {
+            return work.apply(pc.connection());
+        } finally {
+            release(pc);
+        }
+    }
+    
+    <R> R withPrepared(String sql, Object[] params, 
+        SqlFunction<PreparedStatement, R> work) throws SQLException
+    {
+        var pc = acquire();
+        try {
+            // only contended by the shared connection of a non pooled manager
+            synchronized (pc)
+            {
+                var statements = pc.statements(statementCache);
+                var ps = statements.lease(pc.connection(), sql);
+                try {
+                    bind(ps, params);
+                    return run(ps, sql, params, work);
+                } finally {
+                    statements.returned(ps);
+                }
+            }
+        } finally {
+            release(pc);
+        }
+    }
+    
+    private <S extends Statement, R> R run(S statement, String sql,
+        SqlFunction<S, R> execution) throws SQLException
+    {
+        return run(statement, sql, null, execution);
     }
     
     /**
-     * <code>SELECT</code> query<br>
-     * warning: the class must have fields with same name of columns and
-     *  the type is equivalent:<br>
-     * <code>int</code>     represented as SQL <code>INTEGER</code><br>
-     * <code>long</code>    represented as SQL <code>BIGINT</code><br>
-     * <code>float</code>   represented as SQL <code>FLOAT</code><br>
-     * <code>double</code>  represented as SQL <code>DOUBLE</code><br>
-     * <code>boolean</code> represented as SQL <code>BOOLEAN</code><br>
-     * reference types represented as SQL <code>VARCHAR</code>
-     * @param <T> the class type
-     * @param tableName the table name
-     * @param others other SQL after table name
-     * @param cls the reflected class 
-     * @see #select(java.lang.String, java.lang.String) 
-     * @return a list of T objects assigned with database table row fields.
-     * @throws SQLException if SQL exception occurred
+     * execute a statement, the statement can be cancelled by the
+     * {@link AsyncDatabaseManager} running the current thread operation.<br>
+     * it is measured if the metrics, the slow query log or the index advisor
+     * are enabled and recorded as a {@link QueryExecutedEvent} if a flight recording enables
+     * it, the event is not allocated by the compiled code when it is 
+     * disabled.<br>
+     * the rows of a query are counted by the loop reading them, the 
+     * ResultSet is not wrapped.
+     * @param params the bound parameters values, null if they are not known
      */
-    public <T> List<T> select(String tableName, String others,
-        Class<T> cls) throws SQLException
+    private <S extends Statement, R> R run(S statement, String sql,
+        Object[] params, SqlFunction<S, R> execution) throws SQLException
     {
-        var rs = select(tableName, others);
-        var rsmd = rs.getMetaData();
+        var recorder = metrics;
+        var slowQueries = slowQueryLog;
+        var advisor = indexAdvisor;
+        var timed = recorder != null || slowQueries != null || advisor != null;
+        var start = timed ? System.nanoTime() : 0;
+        var event = new QueryExecutedEvent();
+        long rows = 0;
+        var failed = true;
         
-        List<T> lst = new ArrayList<>();
-        
-        while (rs.next())
-        {
-            try 
+        CancelScope.running(statement);
+        event.begin();
+        try {
+            var result = execution.apply(statement);
+            rows = StatementMetrics.rows(result);
+            failed = false;
+            return result;
+        } finally {
+            CancelScope.running(null);
+            event.commit(sql, rows, failed);
+            if (timed)
             {
-                var object = cls.getConstructor().newInstance();
-                for (int i = 1; i <= rsmd.getColumnCount(); i++) 
-                {
-                    var colName = rsmd.getColumnName(i);
-                    
-                    var field = Arrays.asList(cls.getDeclaredFields())
-                        .stream()
-                            .filter(e -> e.getName().equalsIgnoreCase(colName))
-                            .findAny().get();  
-                    field.setAccessible(true);
-                    switch (rsmd.getColumnTypeName(i).toLowerCase())
-                    {
-                        case "integer" -> field.set(object, rs.getInt(i));
-                        case "bigint" -> field.set(object, rs.getLong(i));
-                        case "float" -> field.set(object, rs.getFloat(i));
-                        case "double" -> field.set(object, rs.getDouble(i));
-                        case "varchar" -> field.set(object, rs.getString(i));
-                        case "boolean" -> field.set(object, rs.getBoolean(i));
-                        default -> field.set(object, rs.getString(i));
-                    }
-                } // end for 
-                lst.add(object);
-            } catch (InstantiationException | IllegalAccessException | 
-                    IllegalArgumentException | InvocationTargetException | 
-                        NoSuchMethodException | SecurityException ex) {
-                    Logger.getLogger(DatabaseManager.class.getName()).log(
-                        Level.SEVERE, null, ex);
-                }
-        } // end while
-        
-        return lst;
+                var nanos = System.nanoTime() - start;
+                if (recorder != null)
+                    recorder.executed(sql, nanos, rows, failed);
+                if (slowQueries != null)
+                    slowQueries.executed(sql, params, nanos, rows, failed);
+                if (advisor != null && !failed)
+                    advisor.executed(sql, nanos);
+            } // end if
+        }
+    }
+    
+    private static void bind(PreparedStatement ps, Object[] params) 
+        throws SQLException
+    {
+        for (int i = 0; i < params.length; i++)
+            ps.setObject(i + 1, params[i]);
     }
     
     /**
-     * <code>INSERT</code> statement
-     * @param tableName the table name
-     * @param columns the columns names
-     * @param values the values to be inserted
+     * begin a transaction on the current thread<br>
+     * the operations of this DatabaseManager called by the current thread
+     * use the same connection without auto-commit until 
+     * <code>commit()</code> or <code>rollback()</code>.<br>
+     * warning: a non pooled DatabaseManager has one connection, its
+     *  transaction is shared by all the threads, connect in pooled mode to
+     *  run concurrent transactions.
      * @throws SQLException if SQL exception occurred
+     * @throws IllegalStateException if a transaction is already active
      */
-    public void insert(String tableName, List<String> columns, String... values)
-        throws SQLException
+    public final void begin() throws SQLException
     {
-        var builder = buildString("insert into ", tableName, " ");
-        if (!columns.isEmpty())
-        {
-            builder.append("(");
-            builder.append(columns.stream()
-                .collect(Collectors.joining(", ")));
-            builder.append(") ");
-        } // end if
-        
-        builder.append("values(")
-            .append(Arrays.asList(values).stream()
-                .collect(Collectors.joining(", ")));
-        builder.append(")");
-        
-        execute(builder.toString());
+        begin(-1);
     }
     
     /**
-     * <code>UPDATE</code> statement
-     * @param tableName the table name
-     * @param columns the columns names
-     * @param values new values to update
-     * @param criteria the <code>WHERE</code> clause criteria
+     * begin a transaction on the current thread with an isolation level
+     * @param isolationLevel one of the following <code>Connection</code>
+     *        constants:
+     *         {@code Connection.TRANSACTION_READ_UNCOMMITTED},
+     *         {@code Connection.TRANSACTION_READ_COMMITTED},
+     *         {@code Connection.TRANSACTION_REPEATABLE_READ} or
+     *         {@code Connection.TRANSACTION_SERIALIZABLE}
      * @throws SQLException if SQL exception occurred
+     * @throws IllegalStateException if a transaction is already active
+     * @see #begin() 
      */
-    public void update(String tableName, List<String> columns, List<String> values,
-        String criteria) throws SQLException
+    public final void begin(int isolationLevel) throws SQLException
     {
+        if (transaction.get() != null)
+            throw new IllegalStateException("a transaction is already active");
         
-        var builder = buildString("update ", tableName, " set ");
-        for (int i = 0; i < columns.size(); i++) 
-            builder.append(columns.get(i)).append("=").append(values.get(i))
-                .append(" ");
-        if (criteria != null && !criteria.isBlank())
-        {
-            builder.append(" where ");
-            builder.append(criteria);
+        var pc = acquire();
+        try {
+            var connection = pc.connection();
+            if (!connection.getAutoCommit())
+                throw new IllegalStateException(
+                    "a transaction is already active on the shared connection");
+            
+            var previous = connection.getTransactionIsolation();
+            if (isolationLevel != -1 && isolationLevel != previous)
+                connection.setTransactionIsolation(isolationLevel);
+            connection.setAutoCommit(false);
+            
+            pc.pin(true);
+            transaction.set(new Transaction(pc, previous));
+        } catch (SQLException | RuntimeException ex) {
+            release(pc);
+            throw ex;
         }
-        
-        executeUpdate(builder.toString());
     }
     
     /**
-     * <code>DELETE</code> statement
-     * @param tableName the table name
-     * @param criteria the <code>WHERE</code> clause criteria
-     * @throws SQLException if SQL exception occurred
+     * @return true if a transaction is active on the current thread
      */
-    public void delete(String tableName, String criteria) throws SQLException
+    public final boolean inTransaction()
     {
-        executeUpdate("delete from " + tableName + ((criteria == null ? "" :
-                (criteria.isBlank() ? "" : " where ".concat(criteria)))));
+        return transaction.get() != null;
     }
     
     /**
-     * show the table in the standard output stream
-     * @param tableName the table name
+     * commit the transaction of the current thread
+     * @throws SQLException if SQL exception occurred, the transaction is
+     *  still active and must be rolled back
+     * @throws IllegalStateException if no transaction is active
+     */
+    public final void commit() throws SQLException
+    {
+        currentTransaction().connection.connection().commit();
+        end();
+    }
+    
+    /**
+     * roll back the transaction of the current thread
      * @throws SQLException if SQL exception occurred
+     * @throws IllegalStateException if no transaction is active
      */
-    public void showTable(String tableName) throws SQLException
+    public final void rollback() throws SQLException
     {
-        showTable(tableName, List.of("*"), "");
+        try {
+            currentTransaction().connection.connection().rollback();
+        } finally {
+            end();
+        }
     }
     
     /**
-     * show the table in standard output stream
-     * @param tableName the table name
-     * @param columns columns names
-     * @param others other SQL
+     * create a savepoint in the transaction of the current thread
+     * @param name the savepoint name, null for an unnamed savepoint
+     * @return the savepoint
      * @throws SQLException if SQL exception occurred
+     * @throws IllegalStateException if no transaction is active
      */
-    public void showTable(String tableName, List<String> columns, String others) 
-            throws SQLException
+    public final Savepoint savepoint(String name) throws SQLException
     {
-        var builder = buildString(
-            "select ",
-            columns.stream()
-                .collect(Collectors.joining(" ", "", " ")),
-            "from ".concat(tableName).concat(" "),
-            others);
-        
-        builder.append(others);
+        var connection = currentTransaction().connection.connection();
         
-        var rs = executeQuery(builder.toString());
+        return name == null ? connection.setSavepoint() : 
+            connection.setSavepoint(name);
+    }
+    
+    /**
+     * undo the changes made after a savepoint, the transaction stays active
+     * @param savepoint the savepoint
+     * @throws SQLException if SQL exception occurred
+     * @throws IllegalStateException if no transaction is active
+     */
+    public final void rollback(Savepoint savepoint) throws SQLException
+    {
+        currentTransaction().connection.connection().rollback(savepoint);
+    }
+    
+    /**
+     * remove a savepoint from the transaction of the current thread
+     * @param savepoint the savepoint
+     * @throws SQLException if SQL exception occurred
+     * @throws IllegalStateException if no transaction is active
+     */
+    public final void releaseSavepoint(Savepoint savepoint) throws SQLException
+    {
+        currentTransaction().connection.connection().releaseSavepoint(savepoint);
+    }
+    
+    /**
+     * run a work in a transaction committed once when the work returns and
+     * rolled back if it throws an exception<br>
+     * if a transaction is already active on the current thread the work
+     * runs in a savepoint of that transaction instead.
+     * @param <R> the result type
+     * @param work the work to run
+     * @return the result of the work
+     * @throws SQLException if SQL exception occurred
+     */
+    public final <R> R inTransaction(TransactionWork<R> work) throws SQLException
+    {
+        return inTransaction(-1, work);
+    }
+    
+    /**
+     * run a work in a transaction with an isolation level
+     * @param <R> the result type
+     * @param isolationLevel the isolation level, ignored if a transaction is
+     *  already active on the current thread
+     * @param work the work to run
+     * @return the result of the work
+     * @throws SQLException if SQL exception occurred
+     * @see #inTransaction(ilyriadz.database.TransactionWork) 
+     * @see #begin(int) 
+     */
+    public final <R> R inTransaction(int isolationLevel, TransactionWork<R> work)
+        throws SQLException
+    {
+        Objects.requireNonNull(work);
+        
+        if (inTransaction())
+        {
+            var savepoint = savepoint(null);
+            try {
+                var result = work.run(this);
+                releaseSavepoint(savepoint);
+                return result;
+            } catch (SQLException | RuntimeException | Error ex) {
+                rollback(savepoint);
+                throw ex;
+            }
+        } // end if
+        
+        begin(isolationLevel);
+        try {
+            var result = work.run(this);
+            commit();
+            return result;
+        } catch (SQLException | RuntimeException | Error ex) {
+            if (inTransaction())
+            {
+                try {
+                    rollback();
+                } catch (SQLException suppressed) {
+                    ex.addSuppressed(suppressed);
+                }
+            }
+            throw ex;
+        }
+    }
+    
+    private Transaction currentTransaction()
+    {
+        var tx = transaction.get();
+        if (tx == null)
+            throw new IllegalStateException("no active transaction");
+        
+        return tx;
+    }
+    
+    private void end() throws SQLException
+    {
+        var tx = transaction.get();
+        transaction.remove();
+        
+        var cache = resultCache;
+        if (cache != null)
+            tx.written.forEach(cache::written);
+        
+        var pc = tx.connection;
+        pc.pin(false);
+        try {
+            var connection = pc.connection();
+            connection.setAutoCommit(true);
+            if (connection.getTransactionIsolation() != tx.previousIsolation)
+                connection.setTransactionIsolation(tx.previousIsolation);
+        } finally {
+            release(pc);
+        }
+    }
+    
+    /**
+     * set the maximum number of PreparedStatement objects cached by 
+     * connection, the least recently used statements are closed first
+     * @param size the cache size by connection
+     */
+    public final void setStatementCacheSize(int size)
+    {
+        if (size < 1)
+            throw new IllegalArgumentException("size must be positive: " + size);
+        
+        statementCache.capacity = size;
+    }
+    
+    /**
+     * the PreparedStatement cache metrics of all the connections
+     * @return a snapshot of the statement cache metrics
+     */
+    public final CacheStatistics statementCacheStatistics()
+    {
+        return statementCache.statistics();
+    }
+    
+    /**
+     * cache the results of the <code>select</code> and 
+     * <code>selectPrepared</code> methods mapped to a class<br>
+     * a result is keyed by its table, criteria, parameters and class, the
+     * least recently used results are dropped first and every result 
+     * expires after ttl. the results of a table are dropped when the table
+     * is written by this DatabaseManager, the writes of other programs are
+     * seen only when the results expire.<br>
+     * the column values are cached, not the objects: every call returns 
+     * new objects that the caller can modify.<br>
+     * the queries of a transaction are not cached.
+     * @param maxEntries the maximum number of cached results
+     * @param ttl the time to live of a result
+     */
+    public final void enableResultCache(int maxEntries, Duration ttl)
+    {
+        resultCache = new QueryCache(maxEntries, Objects.requireNonNull(ttl));
+    }
+    
+    /**
+     * drop the cached results and stop caching
+     */
+    public final void disableResultCache()
+    {
+        resultCache = null;
+    }
+    
+    /**
+     * drop the cached results of a table written out of this
+     * DatabaseManager
+     * @param tableName the table name
+     */
+    public final void invalidateResultCache(String tableName)
+    {
+        var cache = resultCache;
+        if (cache != null)
+            cache.invalidate(tableName);
+    }
+    
+    /**
+     * the result cache metrics
+     * @return a snapshot of the result cache metrics
+     * @throws IllegalStateException if the result cache is not enabled
+     */
+    public final CacheStatistics resultCacheStatistics()
+    {
+        var cache = resultCache;
+        if (cache == null)
+            throw new IllegalStateException("the result cache is not enabled");
+        
+        return cache.statistics();
+    }
+    
+    /**
+     * measure the executed statements and publish their metrics on the
+     * platform MBeanServer as 
+     * <code>ilyriadz.database:type=DatabaseManager,name=</code>name<br>
+     * the durations, written and read rows, mapped rows and SQL sizes are
+     * counted by table and operation, measuring a statement costs two clock
+     * reads and a few striped counters, the rows of a query are counted by
+     * the mapping, the iterators and the export reading them, not in the
+     * ResultSet returned by <code>executeQuery</code>. the metrics of a 
+     * previous call are unregistered.
+     * @param name the name of this DatabaseManager in the MBean name
+     * @return the metrics
+     * @throws IllegalArgumentException if name is not a valid MBean name value
+     * @throws IllegalStateException if the MBean can not be registered
+     */
+    public final synchronized DatabaseManagerMXBean enableMetrics(String name)
+    {
+        Objects.requireNonNull(name);
+        disableMetrics();
+        
+        var recorder = new StatementMetrics();
+        try {
+            var objectName = new ObjectName(
+                "ilyriadz.database:type=DatabaseManager,name=".concat(name));
+            ManagementFactory.getPlatformMBeanServer()
+                .registerMBean(recorder, objectName);
+            metricsName = objectName;
+        } catch (MalformedObjectNameException ex) {
+            throw new IllegalArgumentException("invalid metrics name: " + name, 
+                ex);
+        } catch (JMException ex) {
+            throw new IllegalStateException(ex);
+        }
+        
+        metrics = recorder;
+        return recorder;
+    }
+    
+    /**
+     * stop measuring the statements and unregister the metrics MBean
+     */
+    public final synchronized void disableMetrics()
+    {
+        metrics = null;
+        if (metricsName == null)
+            return;
+        
+        try {
+            ManagementFactory.getPlatformMBeanServer()
+                .unregisterMBean(metricsName);
+        } catch (JMException ex) {
+            // already unregistered by another owner of the MBeanServer
+        } finally {
+            metricsName = null;
+        }
+    }
+    
+    /**
+     * the statements metrics
+     * @return the live metrics
+     * @throws IllegalStateException if the metrics are not enabled
+     */
+    public final DatabaseManagerMXBean metrics()
+    {
+        var recorder = metrics;
+        if (recorder == null)
+            throw new IllegalStateException("the metrics are not enabled");
+        
+        return recorder;
+    }
+    
+    /**
+     * write the statements slower than threshold to a rotating log file,
+     * with their parameters, duration, written rows and execution plan<br>
+     * the plan is queried and the file written by a background thread, so
+     * the slow statements are not slowed down more. the plan of a query is 
+     * read by <code>EXPLAIN ANALYZE</code>, which executes it again.
+     * @param threshold the minimum duration of a logged statement
+     * @param pattern the log file name pattern of <code>FileHandler</code>,
+     *  <code>%g</code> is replaced by the file generation
+     * @param limit the maximum number of bytes of a file
+     * @param count the number of rotated files
+     * @throws IOException if the log file can not be opened
+     * @see java.util.logging.FileHandler#FileHandler(java.lang.String, int, int, boolean) 
+     */
+    public final synchronized void enableSlowQueryLog(Duration threshold, 
+        String pattern, int limit, int count) throws IOException
+    {
+        Objects.requireNonNull(threshold);
+        Objects.requireNonNull(pattern);
+        
+        var log = new SlowQueryLog(this, threshold, pattern, limit, count);
+        disableSlowQueryLog();
+        slowQueryLog = log;
+    }
+    
+    /**
+     * write the statements slower than threshold to 5 rotating log files of
+     * 10 MB
+     * @param threshold the minimum duration of a logged statement
+     * @param pattern the log file name pattern of <code>FileHandler</code>
+     * @throws IOException if the log file can not be opened
+     * @see #enableSlowQueryLog(java.time.Duration, java.lang.String, int, int) 
+     */
+    public final void enableSlowQueryLog(Duration threshold, String pattern) 
+        throws IOException
+    {
+        enableSlowQueryLog(threshold, pattern, 10 * 1024 * 1024, 5);
+    }
+    
+    /**
+     * stop logging the slow statements, the pending statements are written
+     * and the log file is closed
+     */
+    public final synchronized void disableSlowQueryLog()
+    {
+        var log = slowQueryLog;
+        slowQueryLog = null;
+        if (log != null)
+            log.close();
+    }
+    
+    /**
+     * record the shapes of the executed <code>SELECT</code>, 
+     * <code>UPDATE</code> and <code>DELETE</code> statements: their table, 
+     * the columns of their <code>WHERE</code> and <code>ORDER BY</code> 
+     * clauses, their number and total duration, to advise the missing 
+     * indexes.<br>
+     * the shapes recorded before are kept.
+     * @see #indexAdvice() 
+     */
+    public final synchronized void enableIndexAdvisor()
+    {
+        if (indexAdvisor == null)
+            indexAdvisor = new IndexAdvisor();
+    }
+    
+    /**
+     * stop recording the query shapes and drop the recorded shapes
+     */
+    public final synchronized void disableIndexAdvisor()
+    {
+        indexAdvisor = null;
+    }
+    
+    private IndexAdvisor indexAdvisor()
+    {
+        var advisor = indexAdvisor;
+        if (advisor == null)
+            throw new IllegalStateException("the index advisor is not enabled");
+        
+        return advisor;
+    }
+    
+    /**
+     * the recorded query shapes
+     * @return the shapes, the longest total duration first
+     * @throws IllegalStateException if the index advisor is not enabled
+     */
+    public final List<QueryShape> queryShapes()
+    {
+        return indexAdvisor().shapes();
+    }
+    
+    /**
+     * compare the recorded query shapes with the indexes of their tables
+     * read from the database metadata
+     * @return the missing indexes, the longest total duration first
+     * @throws SQLException if SQL exception occurred
+     * @throws IllegalStateException if the index advisor is not enabled
+     */
+    public final List<IndexAdvice> indexAdvice() throws SQLException
+    {
+        var advisor = indexAdvisor();
+        return withConnection(c -> advisor.advise(c.getMetaData()));
+    }
+    
+    /**
+     * create the advised indexes
+     * @param advice the advised indexes
+     * @throws SQLException if SQL exception occurred
+     * @see #indexAdvice() 
+     */
+    public final void applyIndexAdvice(List<IndexAdvice> advice) 
+        throws SQLException
+    {
+        for (var index : advice)
+            execute(index.ddl());
+    }
+    
+    /**
+     * run an <code>EXPLAIN</code> command outside of the measured statements
+     * @return the plan lines
+     */
+    String explain(String sql, Object[] params) throws SQLException
+    {
+        var pc = acquire();
+        try {
+            synchronized (pc)
+            {
+                try (var ps = pc.connection().prepareStatement(sql))
+                {
+                    if (params != null)
+                        bind(ps, params);
+                    
+                    var plan = new StringBuilder();
+                    try (var rs = ps.executeQuery())
+                    {
+                        while (rs.next())
+                            plan.append(rs.getString(1))
+                                .append(System.lineSeparator());
+                    }
+                    
+                    return plan.toString();
+                }
+            }
+        } finally {
+            release(pc);
+        }
+    }
+    
+    private void written(String sql)
+    {
+        var cache = resultCache;
+        if (cache == null)
+            return;
+        
+        cache.written(sql);
+        var tx = transaction.get();
+        if (tx != null)
+            tx.written.add(sql);
+    }
+    
+    @SuppressWarnings("unchecked")
+    private <T> List<T> cached(String tableName, String others, Class<T> cls,
+        Object[] params, SqlFunction<Object[], ResultSet> query) 
+        throws SQLException
+    {
+        var cache = resultCache;
+        if (cache == null || inTransaction())
+        {
+            try (var rs = query.apply(params))
+            {
+                return map(tableName, rs, cls);
+            }
+        } // end if
+        
+        var key = QueryCache.key(tableName, others, cls, params);
+        var hit = (CachedRows<T>) cache.get(key);
+        if (hit != null)
+            return hit.read();
+        
+        var version = cache.version(key);
+        var rows = new ArrayList<T>();
+        CachedRows<T> recorded;
+        try (var rs = query.apply(params))
+        {
+            var event = new RowsMappedEvent();
+            event.begin();
+            recorded = CachedRows.readAll(rs, EntityMapper.of(cls), rows);
+            mapped(tableName, cls, event, rows.size());
+        }
+        cache.put(key, version, recorded);
+        
+        return rows;
+    }
+    
+    /**
+     * execute a parameterized SQL query<br>
+     * the query is prepared once by connection and cached, the params are
+     * bound to the <code>?</code> placeholders in order. the statement is
+     * not reused while the ResultSet is open.
+     * @param sql the SQL query with <code>?</code> placeholders
+     * @param params the parameters values
+     * @return a ResultSet object
+     * @throws SQLException if SQL exception occurred
+     */
+    public final ResultSet executeQuery(String sql, Object... params) 
+        throws SQLException
+    {
+        Objects.requireNonNull(sql);
+        
+        // the connection and the statement are held until the ResultSet is 
+        // closed
+        var pc = acquire();
+        try {
+            var statements = pc.statements(statementCache);
+            var ps = statements.lease(pc.connection(), sql);
+            try {
+                ResultSet rs;
+                // only contended by the shared connection of a non pooled manager
+                synchronized (pc)
+                {
+                    bind(ps, params);
+                    rs = run(ps, sql, params, PreparedStatement::executeQuery);
+                }
+                
+                var release = releaser(pc);
+                return LeasedResultSet.wrap(rs, null, () ->
+                {
+                    statements.returned(ps);
+                    release.run();
+                });
+            } catch (SQLException | RuntimeException ex) {
+                statements.returned(ps);
+                throw ex;
+            }
+        } catch (SQLException | RuntimeException ex) {
+            release(pc);
+            throw ex;
+        }
+    }
+    
+    /**
+     * execute a parameterized SQL update<br>
+     * the statement is prepared once by connection and cached, the params 
+     * are bound to the <code>?</code> placeholders in order.
+     * @param sql the SQL update with <code>?</code> placeholders
+     * @param params the parameters values
+     * @return the number of updated rows
+     * @throws SQLException if SQL exception occurred
+     */
+    public final int executeUpdate(String sql, Object... params) 
+        throws SQLException
+    {
+        Objects.requireNonNull(sql);
+        
+        try {
+            return withPrepared(sql, params, PreparedStatement::executeUpdate);
+        } finally {
+            written(sql);
+        }
+    }
+    
+    /**
+     * close the connection, or the connection pool if this 
+     * DatabaseManager is pooled
+     * @throws SQLException if SQL exception occurred
+     */
+    @Override
+    public void close() throws SQLException
+    {
+        if (pool != null)
+        {
+            pool.close();
+            pool = null;
+        }
+        
+        if (connection != null)
+        {
+            try {
+                if (statement != null)
+                    statement.close();
+            } finally {
+                shared.close();
+                connection = null;
+                statement = null;
+                shared = null;
+            }
+        }
+    }
+    
+    private StringBuilder buildString(String... str)
+    {
+        var builder = new StringBuilder();
+        for (var s : str)
+            builder.append(s);
+        
+        return builder;
+    }
+    
+    /**<code>CREATE TABLE</code> statement<br>
+     * create a table in the database
+     * @param tableName the table name
+     * @param columns the table columns<br> &nbsp;&nbsp;&nbsp;example of a column: 
+     * <code>id integer primary key</code> 
+     * @throws SQLException if SQL exception occurred
+     */
+    public void createTable(String tableName, String... columns) 
+        throws SQLException
+    {
+        Objects.requireNonNull(tableName);
+        
+        var builder = buildString(
+            "create table ",
+            tableName, 
+            "(",
+            Arrays.asList(columns).stream()
+                .collect(Collectors.joining(",")),
+            ")");
+        
+        execute(builder.toString());
+    }
+    
+    /**<code>CREATE TABLE IF NOT EXISTS</code> statement<br>
+     * create a table if not exists
+     * @param tableName the table name
+     * @param columns the table columns.<br> &nbsp;&nbsp;&nbsp;example of a column: 
+     * <code>address varchar(255) not null</code>
+     * @throws SQLException if SQL exception occurred
+     */
+    public void createNotExistTable(String tableName, String... columns) 
+        throws SQLException
+    {
+        Objects.requireNonNull(tableName);
+        
+        var builder = buildString(
+            "create table if not exists ",
+            tableName, 
+            "(",
+            Arrays.asList(columns).stream()
+                .collect(Collectors.joining(",")),
+            ")");
+        
+        execute(builder.toString());
+    }
+    
+    /**<code>CREATE TABLE IF NOT EXISTS</code> statement<br>
+     * create a table if not exists from a class<br>
+     * the field name is a column if the field tagged with <code>
+     * {@literal @}TypeProperties</code> annotation.<br>
+     * warning: if you are using the module system and the class has no 
+     *  {@link TableMapping} generated by the annotation processor you must 
+     *  open your module or package to <code>ilyria.database</code> module to
+     *  use this method properly.<br>
+     * DatabaseManager support the following types<br>
+     * <code>int</code>     represented as SQL <code>INTEGER</code><br>
+     * <code>long</code>    represented as SQL <code>BIGINT</code><br>
+     * <code>float</code>   represented as SQL <code>FLOAT</code><br>
+     * <code>double</code>  represented as SQL <code>DOUBLE</code><br>
+     * <code>boolean</code> represented as SQL <code>BOOLEAN</code><br>
+     * <code>short</code>, <code>byte</code> represented as SQL 
+     *  <code>SMALLINT</code>, <code>TINYINT</code><br>
+     * <code>BigDecimal</code> represented as SQL <code>DECIMAL</code><br>
+     * <code>LocalDate</code>, <code>LocalTime</code>, 
+     *  <code>LocalDateTime</code> represented as SQL <code>DATE</code>, 
+     *  <code>TIME</code>, <code>TIMESTAMP</code><br>
+     * <code>OffsetDateTime</code>, <code>Instant</code> represented as SQL
+     *  <code>TIMESTAMP WITH TIME ZONE</code><br>
+     * <code>byte[]</code> represented as SQL <code>VARBINARY</code><br>
+     * enums represented by ordinal as SQL <code>INTEGER</code><br>
+     * other reference types represented as SQL <code>VARCHAR</code><br>
+     * the indexes declared by the <code>{@literal @}Indexed</code>, 
+     * <code>{@literal @}Unique</code> and <code>{@literal @}CompositeIndex
+     * </code> annotations are created if not exist too.
+     * @param <T> the class type
+     * @param tableName the table name
+     * @param cls the class to be reflected
+     * @throws SQLException if SQL exception occurred
+     */
+    public <T> void createNotExistTable(String tableName, Class<T> cls) 
+        throws SQLException
+    {
+        Objects.requireNonNull(tableName);
+        Objects.requireNonNull(cls);
+        
+        var columns = EntityMapper.of(cls).columnDefinitions();
+        
+        var builder = buildString(
+            "create table if not exists ",
+            tableName, 
+            "(",
+            columns.stream()
+                .collect(Collectors.joining(",")),
+            ")");
+        
+        execute(builder.toString());
+        
+        for (var index : IndexDefinitions.statements(tableName, cls))
+            execute(index);
+    }
+    
+    /**
+     * <code>SELECT</code> query
+     * @param tableName the table name
+     * @param other other SQL after table name
+     * @return ResultSet object
+     * @throws SQLException if SQL exception occurred
+     */
+    public ResultSet select(String tableName, String other) throws SQLException
+    {
+        return executeQuery("select * from ".concat(tableName).concat(" ")
+            .concat(other));
+    }
+    
+    /**
+     * <code>SELECT</code> query<br>
+     * the rows are mapped by the {@link EntityMapper} of the class.<br>
+     * warning: the class must have fields with same name of columns and
+     *  the type is equivalent:<br>
+     * <code>int</code>     represented as SQL <code>INTEGER</code><br>
+     * <code>long</code>    represented as SQL <code>BIGINT</code><br>
+     * <code>float</code>   represented as SQL <code>FLOAT</code><br>
+     * <code>double</code>  represented as SQL <code>DOUBLE</code><br>
+     * <code>boolean</code> represented as SQL <code>BOOLEAN</code><br>
+     * <code>short</code>, <code>byte</code> represented as SQL 
+     *  <code>SMALLINT</code>, <code>TINYINT</code><br>
+     * <code>BigDecimal</code> represented as SQL <code>DECIMAL</code><br>
+     * <code>LocalDate</code>, <code>LocalTime</code>, 
+     *  <code>LocalDateTime</code> represented as SQL <code>DATE</code>, 
+     *  <code>TIME</code>, <code>TIMESTAMP</code><br>
+     * <code>OffsetDateTime</code>, <code>Instant</code> represented as SQL
+     *  <code>TIMESTAMP WITH TIME ZONE</code><br>
+     * <code>byte[]</code> represented as SQL <code>VARBINARY</code><br>
+     * enums represented by ordinal as SQL <code>INTEGER</code><br>
+     * other reference types represented as SQL <code>VARCHAR</code>
+     * @param <T> the class type
+     * @param tableName the table name
+     * @param others other SQL after table name
+     * @param cls the reflected class 
+     * @see #select(java.lang.String, java.lang.String) 
+     * @return a list of T objects assigned with database table row fields.
+     * @throws SQLException if SQL exception occurred
+     */
+    public <T> List<T> select(String tableName, String others,
+        Class<T> cls) throws SQLException
+    {
+        return cached(tableName, others, cls, new Object[0], 
+            params -> select(tableName, others));
+    }
+    
+    /**
+     * parameterized <code>SELECT</code> query
+     * @param tableName the table name
+     * @param others other SQL after table name with <code>?</code> placeholders
+     * @param params the parameters values
+     * @return ResultSet object
+     * @throws SQLException if SQL exception occurred
+     * @see #executeQuery(java.lang.String, java.lang.Object...) 
+     */
+    public ResultSet selectPrepared(String tableName, String others, 
+        Object... params) throws SQLException
+    {
+        return executeQuery("select * from ".concat(tableName).concat(" ")
+            .concat(others), params);
+    }
+    
+    /**
+     * parameterized <code>SELECT</code> query mapped to a class<br>
+     * the result is served from memory if the result cache is enabled.
+     * @param <T> the class type
+     * @param tableName the table name
+     * @param others other SQL after table name with <code>?</code> placeholders
+     * @param cls the reflected class 
+     * @param params the parameters values
+     * @return a list of T objects assigned with database table row fields.
+     * @throws SQLException if SQL exception occurred
+     * @see #select(java.lang.String, java.lang.String, java.lang.Class) 
+     */
+    public <T> List<T> selectPrepared(String tableName, String others, 
+        Class<T> cls, Object... params) throws SQLException
+    {
+        return cached(tableName, others, cls, params, 
+            p -> selectPrepared(tableName, others, p));
+    }
+    
+    /**
+     * parameterized <code>SELECT</code> of the columns mapped by a class<br>
+     * only the {@link EntityMapper#selection()} columns are selected: the
+     * components of a record or the <code>{@literal @}TypeProperties</code>
+     * fields of a class, so a narrow view of a table like a record of two
+     * columns transfers and allocates only these columns.<br>
+     * the result is served from memory if the result cache is enabled.
+     * @param <T> the class or record type
+     * @param tableName the table name
+     * @param others other SQL after table name with <code>?</code> placeholders
+     * @param cls the mapped class or record
+     * @param params the parameters values
+     * @return a list of T objects assigned with the selected columns
+     * @throws SQLException if SQL exception occurred
+     * @throws IllegalArgumentException if cls maps no column
+     */
+    public <T> List<T> project(String tableName, String others, Class<T> cls,
+        Object... params) throws SQLException
+    {
+        var sql = projection(tableName, cls).concat(others);
+
+        return cached(tableName, sql, cls, params, p -> executeQuery(sql, p));
+    }
+
+    /**
+     * parameterized <code>SELECT</code> of the columns mapped by a class as a
+     * lazy stream over a forward-only cursor<br>
+     * the stream must be closed, use it in a try-with-resources statement.
+     * @param <T> the class or record type
+     * @param tableName the table name
+     * @param others other SQL after table name with <code>?</code> placeholders
+     * @param cls the mapped class or record
+     * @param fetchSize the number of rows fetched from the database at once
+     * @param params the parameters values
+     * @return a stream of the mapped rows
+     * @throws SQLException if SQL exception occurred
+     * @throws IllegalArgumentException if cls maps no column
+     * @see #project(java.lang.String, java.lang.String, java.lang.Class, java.lang.Object...)
+     */
+    public <T> Stream<T> projectStream(String tableName, String others,
+        Class<T> cls, int fetchSize, Object... params) throws SQLException
+    {
+        var mapper = EntityMapper.of(cls);
+
+        return iterator(projection(tableName, cls).concat(others), fetchSize,
+            params, mapper::reader).stream();
+    }
+
+    private static String projection(String tableName, Class<?> cls)
+    {
+        Objects.requireNonNull(tableName);
+
+        var columns = EntityMapper.of(cls).selection();
+        if (columns.isEmpty())
+            throw new IllegalArgumentException(cls.getName() +
+                " maps no column");
+
+        return "select ".concat(String.join(",", columns)).concat(" from ")
+            .concat(tableName).concat(" ");
+    }
+
+    private <T> List<T> map(ResultSet rs, Class<T> cls) throws SQLException
+    {
+        return EntityMapper.of(cls).readAll(rs);
+    }
+    
+    /**
+     * map the rows of a query and count them in the metrics and in a
+     * {@link RowsMappedEvent}
+     */
+    private <T> List<T> map(String tableName, ResultSet rs, Class<T> cls) 
+        throws SQLException
+    {
+        var event = new RowsMappedEvent();
+        event.begin();
+        var rows = map(rs, cls);
+        mapped(tableName, cls, event, rows.size());
+        
+        return rows;
+    }
+    
+    private void mapped(String tableName, Class<?> cls, RowsMappedEvent event,
+        int rows)
+    {
+        event.commit(tableName, cls, rows);
+        
+        var recorder = metrics;
+        if (recorder != null)
+        {
+            var entry = recorder.entry(tableName, "select");
+            entry.read(rows);
+            entry.mapped(rows);
+        } // end if
+    }
+    
+    /**
+     * @return the metrics entry of a statement, null if the metrics are 
+     *  disabled
+     */
+    private StatementMetrics.Entry metricsEntry(String sql)
+    {
+        var recorder = metrics;
+        return recorder == null ? null : recorder.entry(sql);
+    }
+    
+    /**
+     * <code>SELECT</code> query over a forward-only cursor<br>
+     * the rows are mapped one by one while iterating, so the memory used does
+     * not depend on the number of rows. the iterator holds a connection until
+     * it is exhausted or closed.<br>
+     * note: an embedded H2 database materializes the result before returning
+     * it unless <code>;LAZY_QUERY_EXECUTION=1</code> is added to the database
+     * name.
+     * @param <T> the class type
+     * @param tableName the table name
+     * @param others other SQL after table name with <code>?</code> placeholders
+     * @param cls the reflected class 
+     * @param fetchSize the number of rows fetched from the database at once
+     * @param params the parameters values
+     * @return an iterator over the mapped rows
+     * @throws SQLException if SQL exception occurred
+     */
+    public <T> ResultIterator<T> iterator(String tableName, String others, 
+        Class<T> cls, int fetchSize, Object... params) throws SQLException
+    {
+        var mapper = EntityMapper.of(cls);
+        
+        return iterator("select * from ".concat(tableName).concat(" ")
+            .concat(others), fetchSize, params, mapper::reader);
+    }
+    
+    <T> ResultIterator<T> iterator(String sql, int fetchSize, Object[] params,
+        SqlFunction<ResultSetMetaData, RowReader<T>> readerFactory) 
+        throws SQLException
+    {
+        var pc = acquire();
+        try {
+            // a fresh statement, a cached one could be executed again by 
+            // another caller of the shared connection and close the cursor
+            var ps = pc.connection().prepareStatement(sql, 
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            try {
+                ps.setFetchSize(fetchSize);
+                bind(ps, params);
+                var rs = run(ps, sql, params, PreparedStatement::executeQuery);
+                return new ResultIterator<>(ps, rs, 
+                    readerFactory.apply(rs.getMetaData()), metricsEntry(sql),
+                    releaser(pc));
+            } catch (SQLException | RuntimeException ex) {
+                ps.close();
+                throw ex;
+            }
+        } catch (SQLException | RuntimeException ex) {
+            release(pc);
+            throw ex;
+        }
+    }
+    
+    /**
+     * <code>SELECT</code> query as a lazy stream over a forward-only cursor<br>
+     * the stream must be closed, use it in a try-with-resources statement.
+     * @param <T> the class type
+     * @param tableName the table name
+     * @param others other SQL after table name with <code>?</code> placeholders
+     * @param cls the reflected class 
+     * @param fetchSize the number of rows fetched from the database at once
+     * @param params the parameters values
+     * @return a stream of the mapped rows
+     * @throws SQLException if SQL exception occurred
+     * @see #iterator(java.lang.String, java.lang.String, java.lang.Class, int, java.lang.Object...) 
+     */
+    public <T> Stream<T> stream(String tableName, String others, Class<T> cls,
+        int fetchSize, Object... params) throws SQLException
+    {
+        return iterator(tableName, others, cls, fetchSize, params).stream();
+    }
+    
+    /**
+     * <code>SELECT</code> query as a lazy stream over a forward-only cursor
+     * fetching {@link #DEFAULT_FETCH_SIZE} rows at once
+     * @param <T> the class type
+     * @param tableName the table name
+     * @param others other SQL after table name
+     * @param cls the reflected class 
+     * @return a stream of the mapped rows
+     * @throws SQLException if SQL exception occurred
+     * @see #stream(java.lang.String, java.lang.String, java.lang.Class, int, java.lang.Object...) 
+     */
+    public <T> Stream<T> stream(String tableName, String others, Class<T> cls)
+        throws SQLException
+    {
+        return stream(tableName, others, cls, DEFAULT_FETCH_SIZE);
+    }
+    
+    /**
+     * <code>SELECT</code> a page of rows after a key<br>
+     * the rows are ordered by the order columns and the page starts after
+     * the row with the afterKey values, so reading a page costs the same
+     * at any depth unlike <code>OFFSET</code>.<br>
+     * the order columns must be mapped columns, not null, and the last one
+     * or all together must be unique.
+     * @param <T> the class type
+     * @param tableName the table name
+     * @param cls the reflected class 
+     * @param orderColumns the order columns, followed by <code> desc</code>
+     *  for a descending order
+     * @param afterKey the continuation token of the previous page, 
+     *  <code>{@link Page#next()}</code>, null for the first page
+     * @param limit the maximum number of rows of the page
+     * @return the page
+     * @throws SQLException if SQL exception occurred
+     */
+    public <T> Page<T> selectPage(String tableName, Class<T> cls, 
+        List<String> orderColumns, List<?> afterKey, int limit) 
+        throws SQLException
+    {
+        return selectPage(tableName, cls, null, orderColumns, afterKey, limit);
+    }
+    
+    /**
+     * <code>SELECT</code> a page of the rows matching a criteria after a key
+     * @param <T> the class type
+     * @param tableName the table name
+     * @param cls the reflected class 
+     * @param criteria the <code>WHERE</code> clause criteria with 
+     *  <code>?</code> placeholders, null or empty for all the rows
+     * @param orderColumns the order columns, followed by <code> desc</code>
+     *  for a descending order
+     * @param afterKey the continuation token of the previous page, null for
+     *  the first page
+     * @param limit the maximum number of rows of the page
+     * @param params the criteria parameters values
+     * @return the page
+     * @throws SQLException if SQL exception occurred
+     * @see #selectPage(java.lang.String, java.lang.Class, java.util.List, java.util.List, int) 
+     */
+    public <T> Page<T> selectPage(String tableName, Class<T> cls, 
+        String criteria, List<String> orderColumns, List<?> afterKey, 
+        int limit, Object... params) throws SQLException
+    {
+        if (limit < 1)
+            throw new IllegalArgumentException("limit must be positive: " + limit);
+        if (afterKey != null && afterKey.size() != orderColumns.size())
+            throw new IllegalArgumentException(orderColumns.size() + 
+                " order columns but " + afterKey.size() + " key values");
+        
+        var columns = new ArrayList<String>();
+        var descending = new boolean[orderColumns.size()];
+        for (int i = 0; i < descending.length; i++)
+        {
+            var parts = orderColumns.get(i).strip().split("\\s+");
+            columns.add(parts[0]);
+            descending[i] = parts.length > 1 && parts[1].equalsIgnoreCase("desc");
+        } // end for
+        
+        var mapper = EntityMapper.of(cls);
+        var keys = keyIndexes(mapper, columns);
+        
+        var predicates = new ArrayList<String>();
+        var all = new ArrayList<Object>(Arrays.asList(params));
+        if (criteria != null && !criteria.isBlank())
+            predicates.add("(" + criteria + ")");
+        
+        if (afterKey != null)
+        {
+            // a sargable bound on the first column, then the exact keyset
+            predicates.add(columns.get(0) + (descending[0] ? " <= ?" : " >= ?"));
+            all.add(parameter(afterKey.get(0)));
+            
+            var keyset = new ArrayList<String>();
+            for (int i = 0; i < columns.size(); i++)
+            {
+                var terms = new ArrayList<String>();
+                for (int j = 0; j < i; j++)
+                {
+                    terms.add(columns.get(j) + " = ?");
+                    all.add(parameter(afterKey.get(j)));
+                } // end for
+                
+                terms.add(columns.get(i) + (descending[i] ? " < ?" : " > ?"));
+                all.add(parameter(afterKey.get(i)));
+                keyset.add("(" + String.join(" and ", terms) + ")");
+            } // end for
+            predicates.add("(" + String.join(" or ", keyset) + ")");
+        } // end if
+        
+        var others = new StringBuilder();
+        if (!predicates.isEmpty())
+            others.append("where ").append(String.join(" and ", predicates));
+        others.append(" order by ").append(String.join(", ", orderColumns))
+            .append(" limit ?");
+        // one more row tells if a next page exists
+        all.add(limit + 1);
+        
+        var rows = selectPrepared(tableName, others.toString(), cls, 
+            all.toArray());
+        if (rows.size() <= limit)
+            return new Page<>(rows, null);
+        
+        rows.remove(limit);
+        var last = rows.get(limit - 1);
+        var next = new ArrayList<Object>(keys.length);
+        for (var key : keys)
+            next.add(mapper.get(last, key));
+        
+        return new Page<>(rows, Collections.unmodifiableList(next));
+    }
+    
+    /**
+     * check if a row matches a criteria, no row is read
+     * @param tableName the table name
+     * @param criteria the <code>WHERE</code> clause criteria with 
+     *  <code>?</code> placeholders, null or empty for any row
+     * @param params the criteria parameters values
+     * @return true if a row matches
+     * @throws SQLException if SQL exception occurred
+     */
+    public boolean exists(String tableName, String criteria, Object... params)
+        throws SQLException
+    {
+        try (var rs = executeQuery("select 1 from " + tableName + 
+            where(criteria) + " limit 1", params))
+        {
+            return rs.next();
+        }
+    }
+    
+    /**
+     * count the rows matching a criteria
+     * @param tableName the table name
+     * @param criteria the <code>WHERE</code> clause criteria with 
+     *  <code>?</code> placeholders, null or empty for all the rows
+     * @param params the criteria parameters values
+     * @return the number of rows
+     * @throws SQLException if SQL exception occurred
+     */
+    public long count(String tableName, String criteria, Object... params)
+        throws SQLException
+    {
+        try (var rs = executeQuery("select count(*) from " + tableName + 
+            where(criteria), params))
+        {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+    
+    /**
+     * the minimum value of a column
+     * @param <V> the value type
+     * @param tableName the table name
+     * @param column the column name
+     * @param type the value class, <code>Integer</code>, 
+     *  <code>LocalDateTime</code>... 
+     * @param criteria the <code>WHERE</code> clause criteria with 
+     *  <code>?</code> placeholders, null or empty for all the rows
+     * @param params the criteria parameters values
+     * @return the minimum value, or null if no row matches
+     * @throws SQLException if SQL exception occurred
+     */
+    public <V> V min(String tableName, String column, Class<V> type, 
+        String criteria, Object... params) throws SQLException
+    {
+        return aggregate("min(" + column + ")", tableName, type, criteria, 
+            params);
+    }
+    
+    /**
+     * the maximum value of a column
+     * @param <V> the value type
+     * @param tableName the table name
+     * @param column the column name
+     * @param type the value class, <code>Integer</code>, 
+     *  <code>LocalDateTime</code>... 
+     * @param criteria the <code>WHERE</code> clause criteria with 
+     *  <code>?</code> placeholders, null or empty for all the rows
+     * @param params the criteria parameters values
+     * @return the maximum value, or null if no row matches
+     * @throws SQLException if SQL exception occurred
+     */
+    public <V> V max(String tableName, String column, Class<V> type, 
+        String criteria, Object... params) throws SQLException
+    {
+        return aggregate("max(" + column + ")", tableName, type, criteria, 
+            params);
+    }
+    
+    private <V> V aggregate(String aggregate, String tableName, Class<V> type,
+        String criteria, Object[] params) throws SQLException
+    {
+        try (var rs = executeQuery("select " + aggregate + " from " + 
+            tableName + where(criteria), params))
+        {
+            rs.next();
+            return rs.getObject(1, type);
+        }
+    }
+    
+    /**
+     * count the rows by value of a column
+     * @param <K> the column type
+     * @param tableName the table name
+     * @param column the grouping column name
+     * @param keyType the column class
+     * @param criteria the <code>WHERE</code> clause criteria with 
+     *  <code>?</code> placeholders, null or empty for all the rows
+     * @param params the criteria parameters values
+     * @return the number of rows by column value ordered by column value
+     * @throws SQLException if SQL exception occurred
+     */
+    public <K> Map<K, Long> countBy(String tableName, String column, 
+        Class<K> keyType, String criteria, Object... params) throws SQLException
+    {
+        return groupBy(tableName, column, keyType, "count(*)", Long.class,
+            criteria, params);
+    }
+    
+    /**
+     * compute an aggregate by value of a column
+     * <code>groupBy("references", "tel", Integer.class, "max(dt)", 
+     * LocalDateTime.class, "")</code> is the date of the latest reference 
+     * of every telephone for example.
+     * @param <K> the column type
+     * @param <V> the aggregate type
+     * @param tableName the table name
+     * @param column the grouping column name
+     * @param keyType the column class
+     * @param aggregate the SQL aggregate expression, <code>count(*)</code>,
+     *  <code>sum(column)</code>, <code>max(column)</code>...
+     * @param valueType the aggregate class
+     * @param criteria the <code>WHERE</code> clause criteria with 
+     *  <code>?</code> placeholders, null or empty for all the rows
+     * @param params the criteria parameters values
+     * @return the aggregate by column value ordered by column value
+     * @throws SQLException if SQL exception occurred
+     */
+    public <K, V> Map<K, V> groupBy(String tableName, String column, 
+        Class<K> keyType, String aggregate, Class<V> valueType, 
+        String criteria, Object... params) throws SQLException
+    {
+        var sql = buildString("select ", column, ", ", aggregate, " from ",
+            tableName, where(criteria), " group by ", column, " order by ", 
+            column).toString();
+        
+        try (var rs = executeQuery(sql, params))
+        {
+            var map = new LinkedHashMap<K, V>();
+            while (rs.next())
+                map.put(rs.getObject(1, keyType), rs.getObject(2, valueType));
+            
+            return map;
+        }
+    }
+    
+    private static String where(String criteria)
+    {
+        return criteria == null || criteria.isBlank() ? "" : 
+            " where ".concat(criteria);
+    }
+    
+    /**
+     * <code>INSERT</code> statement
+     * @param tableName the table name
+     * @param columns the columns names
+     * @param values the values to be inserted
+     * @throws SQLException if SQL exception occurred
+     */
+    public void insert(String tableName, List<String> columns, String... values)
+        throws SQLException
+    {
+        var builder = buildString("insert into ", tableName, " ");
+        if (!columns.isEmpty())
+        {
+            builder.append("(");
+            builder.append(columns.stream()
+                .collect(Collectors.joining(", ")));
+            builder.append(") ");
+        } // end if
+        
+        builder.append("values(")
+            .append(Arrays.asList(values).stream()
+                .collect(Collectors.joining(", ")));
+        builder.append(")");
+        
+        execute(builder.toString());
+    }
+    
+    /**
+     * parameterized <code>INSERT</code> statement<br>
+     * the values are bound as parameters, strings must not be quoted.
+     * @param tableName the table name
+     * @param columns the columns names
+     * @param values the values to be inserted
+     * @return the number of inserted rows
+     * @throws SQLException if SQL exception occurred
+     */
+    public int insertPrepared(String tableName, List<String> columns, 
+        Object... values) throws SQLException
+    {
+        var builder = buildString("insert into ", tableName, " ");
+        if (!columns.isEmpty())
+        {
+            builder.append("(");
+            builder.append(columns.stream()
+                .collect(Collectors.joining(", ")));
+            builder.append(") ");
+        } // end if
+        
+        builder.append("values(")
+            .append(placeholders(values.length))
+            .append(")");
+        
+        return executeUpdate(builder.toString(), values);
+    }
+    
+    private static String placeholders(int count)
+    {
+        return count == 0 ? "" : "?, ".repeat(count - 1).concat("?");
+    }
+    
+    /**
+     * batch <code>INSERT</code> of objects<br>
+     * the columns are the fields tagged with <code>{@literal @}TypeProperties
+     * </code> of the class of the first object, all the objects must be of
+     * the same class.
+     * @param <T> the class type
+     * @param tableName the table name
+     * @param entities the objects to be inserted
+     * @return the number of inserted rows
+     * @throws SQLException if SQL exception occurred
+     * @see #insertAll(java.lang.String, java.lang.Class, java.lang.Iterable, int) 
+     */
+    @SuppressWarnings("unchecked")
+    public <T> long insertAll(String tableName, Collection<T> entities) 
+        throws SQLException
+    {
+        if (entities.isEmpty())
+            return 0;
+        
+        var cls = (Class<T>) entities.iterator().next().getClass();
+        return insertAll(tableName, cls, entities, DEFAULT_BATCH_SIZE);
+    }
+    
+    /**
+     * batch <code>INSERT</code> of objects<br>
+     * the columns are the fields of cls tagged with <code>{@literal @}TypeProperties
+     * </code>, the rows are sent by <code>executeBatch</code> and committed
+     * every batchSize rows, if an insertion failed only the rows of the 
+     * current batch are rolled back.<br>
+     * if the connection is not in auto-commit mode, the rows are not committed
+     * and the transaction is left to the caller.
+     * @param <T> the class type
+     * @param tableName the table name
+     * @param cls the reflected class 
+     * @param entities the objects to be inserted
+     * @param batchSize the number of rows sent and committed at once
+     * @return the number of inserted rows
+     * @throws SQLException if SQL exception occurred
+     */
+    public <T> long insertAll(String tableName, Class<T> cls, 
+        Iterable<? extends T> entities, int batchSize) throws SQLException
+    {
+        Objects.requireNonNull(tableName);
+        Objects.requireNonNull(entities);
+        if (batchSize < 1)
+            throw new IllegalArgumentException("batchSize must be positive: " + 
+                batchSize);
+        
+        var mapper = EntityMapper.of(cls);
+        if (mapper.columns().isEmpty())
+            throw new MappingException(cls.getName() + 
+                " has no field tagged with @TypeProperties");
+        
+        var sql = buildString("insert into ", tableName, " (",
+            String.join(", ", mapper.columns()), ") values(", 
+            placeholders(mapper.columns().size()), ")").toString();
+        
+        var pc = acquire();
+        try {
+            synchronized (pc)
+            {
+                var connection = pc.connection();
+                var statements = pc.statements(statementCache);
+                var ps = statements.lease(connection, sql);
+                var autoCommit = connection.getAutoCommit();
+                if (autoCommit)
+                    connection.setAutoCommit(false);
+                
+                try {
+                    long total = 0;
+                    int pending = 0;
+                    for (T entity : entities)
+                    {
+                        mapper.bind(ps, 1, entity);
+                        ps.addBatch();
+                        if (++pending == batchSize)
+                        {
+                            total += executeBatch(ps, sql, autoCommit);
+                            pending = 0;
+                        }
+                    } // end for
+                    
+                    if (pending > 0)
+                        total += executeBatch(ps, sql, autoCommit);
+                    
+                    return total;
+                } catch (SQLException | RuntimeException ex) {
+                    ps.clearBatch();
+                    if (autoCommit)
+                        connection.rollback();
+                    throw ex;
+                } finally {
+                    statements.returned(ps);
+                    if (autoCommit)
+                        connection.setAutoCommit(true);
+                }
+            }
+        } finally {
+            release(pc);
+            written(sql);
+        }
+    }
+    
+    /**
+     * batch <code>INSERT</code> of a stream of objects
+     * @param <T> the class type
+     * @param tableName the table name
+     * @param cls the reflected class 
+     * @param entities the objects to be inserted
+     * @param batchSize the number of rows sent and committed at once
+     * @return the number of inserted rows
+     * @throws SQLException if SQL exception occurred
+     * @see #insertAll(java.lang.String, java.lang.Class, java.lang.Iterable, int) 
+     */
+    public <T> long insertAll(String tableName, Class<T> cls, 
+        Stream<T> entities, int batchSize) throws SQLException
+    {
+        Iterable<T> iterable = entities::iterator;
+        return insertAll(tableName, cls, iterable, batchSize);
+    }
+    
+    /**
+     * load a delimited file, CSV or TSV, into a table<br>
+     * the file is streamed by batches of <code>settings.batchSize()</code>
+     * lines, the lines of a batch are parsed in parallel while the previous
+     * batch is inserted by 
+     * {@link #insertAll(java.lang.String, java.lang.Class, java.lang.Iterable, int)}.
+     * a line rejected by the parser is written to the rejects file followed
+     * by the delimiter and the quoted reason, so the file can be corrected
+     * and loaded again.<br>
+     * out of a transaction, a line whose row has a key already in the table
+     * by a unique index is rejected the same way, so a file can be loaded
+     * again.<br>
+     * the batches inserted before a failed insertion stay committed.
+     * @param <T> the class type
+     * @param source the delimited file
+     * @param rejects the file of the rejected lines, it is replaced
+     * @param tableName the table name
+     * @param cls the reflected class 
+     * @param settings the format of the file
+     * @param parser parses and validates the fields of a line
+     * @param progress called after every batch with the load progress
+     * @return the final load statistics
+     * @throws IOException if the files can not be read or written
+     * @throws SQLException if SQL exception occurred
+     */
+    public <T> LoadStatistics load(Path source, Path rejects, String tableName,
+        Class<T> cls, LoadSettings settings, RowParser<? extends T> parser,
+        Consumer<? super LoadStatistics> progress) 
+        throws IOException, SQLException
+    {
+        return new BulkLoader<>(this, tableName, cls, settings, parser, 
+            progress).load(source, rejects);
+    }
+    
+    /**
+     * load a delimited file into a table without progress reporting
+     * @param <T> the class type
+     * @param source the delimited file
+     * @param rejects the file of the rejected lines, it is replaced
+     * @param tableName the table name
+     * @param cls the reflected class 
+     * @param settings the format of the file
+     * @param parser parses and validates the fields of a line
+     * @return the load statistics
+     * @throws IOException if the files can not be read or written
+     * @throws SQLException if SQL exception occurred
+     * @see #load(java.nio.file.Path, java.nio.file.Path, java.lang.String, java.lang.Class, ilyriadz.database.LoadSettings, ilyriadz.database.RowParser, java.util.function.Consumer) 
+     */
+    public <T> LoadStatistics load(Path source, Path rejects, String tableName,
+        Class<T> cls, LoadSettings settings, RowParser<? extends T> parser) 
+        throws IOException, SQLException
+    {
+        return load(source, rejects, tableName, cls, settings, parser, 
+            statistics -> { });
+    }
+    
+    private long executeBatch(PreparedStatement ps, String sql, boolean commit) 
+        throws SQLException
+    {
+        long count = 0;
+        for (var updated : run(ps, sql, PreparedStatement::executeBatch))
+            count += updated == Statement.SUCCESS_NO_INFO ? 1 : updated;
+        
+        if (commit)
+            ps.getConnection().commit();
+        
+        return count;
+    }
+    
+    /**
+     * <code>INSERT</code> an object or <code>UPDATE</code> the row with the
+     * same key columns values in one statement<br>
+     * the columns are the fields tagged with <code>{@literal @}TypeProperties
+     * </code> of the class of the object, the statement is built by 
+     * {@link #upsertStatement(java.lang.String, java.util.List, java.util.List)}.
+     * @param <T> the class type
+     * @param tableName the table name
+     * @param keyColumns the columns identifying a row
+     * @param entity the object to be written
+     * @return true if a row was written
+     * @throws SQLException if SQL exception occurred
+     */
+    public <T> boolean upsert(String tableName, List<String> keyColumns, 
+        T entity) throws SQLException
+    {
+        var mapper = mapper(entity);
+        keyIndexes(mapper, keyColumns);
+        
+        var sql = upsertStatement(tableName, mapper.columns(), keyColumns);
+        try {
+            return withPrepared(sql, new Object[0], ps ->
+            {
+                mapper.bind(ps, 1, entity);
+                return ps.executeUpdate();
+            }) > 0;
+        } finally {
+            written(sql);
+        }
+    }
+    
+    /**
+     * <code>INSERT</code> an object if no row has the same key columns 
+     * values, the check and the insertion are one statement<br>
+     * a concurrent insertion of the same key is detected if the key 
+     * columns have a unique index, the object is not inserted then.
+     * @param <T> the class type
+     * @param tableName the table name
+     * @param keyColumns the columns identifying a row
+     * @param entity the object to be inserted
+     * @return true if the object was inserted, false if a row with the same
+     *  key exists
+     * @throws SQLException if SQL exception occurred
+     * @see #insertIfAbsentStatement(java.lang.String, java.util.List, java.util.List) 
+     */
+    public <T> boolean insertIfAbsent(String tableName, List<String> keyColumns,
+        T entity) throws SQLException
+    {
+        var mapper = mapper(entity);
+        var keys = keyIndexes(mapper, keyColumns);
+        
+        var sql = insertIfAbsentStatement(tableName, mapper.columns(), keyColumns);
+        try {
+            return withPrepared(sql, new Object[0], ps ->
+            {
+                mapper.bind(ps, 1, entity);
+                var index = mapper.columns().size() + 1;
+                for (var key : keys)
+                {
+                    ps.setObject(index++, parameter(mapper.get(entity, key)));
+                } // end for
+                
+                return ps.executeUpdate();
+            }) > 0;
+        } catch (SQLException ex) {
+            // unique violation, the key was inserted by another client
+            if ("23505".equals(ex.getSQLState()))
+                return false;
+            throw ex;
+        } finally {
+            written(sql);
+        }
+    }
+    
+    /**
+     * the statement of {@link #upsert(java.lang.String, java.util.List, java.lang.Object)},
+     * the values of the columns are bound in order.<br>
+     * the default is the H2 <code>MERGE INTO ... KEY(...)</code> statement,
+     * override this method for the other database systems.
+     * @param tableName the table name
+     * @param columns the columns names
+     * @param keyColumns the columns identifying a row
+     * @return the SQL statement
+     */
+    protected String upsertStatement(String tableName, List<String> columns,
+        List<String> keyColumns)
+    {
+        return buildString("merge into ", tableName, " (", 
+            String.join(", ", columns), ") key (", 
+            String.join(", ", keyColumns), ") values(", 
+            placeholders(columns.size()), ")").toString();
+    }
+    
+    /**
+     * the statement of {@link #insertIfAbsent(java.lang.String, java.util.List, java.lang.Object)},
+     * the values of the columns are bound in order then the values of the
+     * key columns.<br>
+     * the default is an <code>INSERT ... SELECT ... WHERE NOT EXISTS</code>
+     * statement, override this method if the database system does not 
+     * support it.
+     * @param tableName the table name
+     * @param columns the columns names
+     * @param keyColumns the columns identifying a row
+     * @return the SQL statement
+     */
+    protected String insertIfAbsentStatement(String tableName, 
+        List<String> columns, List<String> keyColumns)
+    {
+        return buildString("insert into ", tableName, " (", 
+            String.join(", ", columns), ") select ", 
+            placeholders(columns.size()), " where not exists (select 1 from ", 
+            tableName, " where ", 
+            keyColumns.stream()
+                .map(column -> column.concat("=?"))
+                .collect(Collectors.joining(" and ")), 
+            ")").toString();
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static <T> EntityMapper<T> mapper(T entity)
+    {
+        var mapper = EntityMapper.of((Class<T>) entity.getClass());
+        if (mapper.columns().isEmpty())
+            throw new MappingException(entity.getClass().getName() + 
+                " has no field tagged with @TypeProperties");
         
-        var rsmd = rs.getMetaData();
+        return mapper;
+    }
+    
+    /**
+     * @return a field value as a statement parameter, an enum by ordinal
+     */
+    private static Object parameter(Object value)
+    {
+        return value instanceof Enum<?> e ? e.ordinal() : value;
+    }
+    
+    private static int[] keyIndexes(EntityMapper<?> mapper, 
+        List<String> keyColumns)
+    {
+        if (keyColumns.isEmpty())
+            throw new IllegalArgumentException("no key columns");
         
-        for (int i = 1; i <= rsmd.getColumnCount(); i++)
+        var columns = mapper.columns();
+        var indexes = new int[keyColumns.size()];
+        for (int i = 0; i < indexes.length; i++)
         {
-            System.out.printf("%-20s", rsmd.getColumnName(i));
+            var key = keyColumns.get(i);
+            var index = -1;
+            for (int j = 0; j < columns.size() && index == -1; j++)
+            {
+                if (columns.get(j).equalsIgnoreCase(key))
+                    index = j;
+            } // end for
+            
+            if (index == -1)
+                throw new IllegalArgumentException(key + " is not a column of " +
+                    mapper.type().getName());
+            indexes[i] = index;
         } // end for
         
-        System.out.println();
+        return indexes;
+    }
+    
+    /**
+     * <code>UPDATE</code> statement
+     * @param tableName the table name
+     * @param columns the columns names
+     * @param values new values to update
+     * @param criteria the <code>WHERE</code> clause criteria
+     * @throws SQLException if SQL exception occurred
+     */
+    public void update(String tableName, List<String> columns, List<String> values,
+        String criteria) throws SQLException
+    {
+        
+        var builder = buildString("update ", tableName, " set ");
+        for (int i = 0; i < columns.size(); i++) 
+            builder.append(columns.get(i)).append("=").append(values.get(i))
+                .append(" ");
+        if (criteria != null && !criteria.isBlank())
+        {
+            builder.append(" where ");
+            builder.append(criteria);
+        }
+        
+        executeUpdate(builder.toString());
+    }
+    
+    /**
+     * parameterized <code>UPDATE</code> statement<br>
+     * the values and the criteria params are bound as parameters in this
+     * order, strings must not be quoted.
+     * @param tableName the table name
+     * @param columns the columns names
+     * @param values new values to update
+     * @param criteria the <code>WHERE</code> clause criteria with 
+     *  <code>?</code> placeholders
+     * @param params the criteria parameters values
+     * @return the number of updated rows
+     * @throws SQLException if SQL exception occurred
+     */
+    public int updatePrepared(String tableName, List<String> columns, 
+        List<?> values, String criteria, Object... params) throws SQLException
+    {
+        if (columns.size() != values.size())
+            throw new IllegalArgumentException(columns.size() + " columns but " +
+                values.size() + " values");
         
-        while (rs.next())
+        var builder = buildString("update ", tableName, " set ", 
+            columns.stream()
+                .map(column -> column.concat("=?"))
+                .collect(Collectors.joining(", ")));
+        if (criteria != null && !criteria.isBlank())
         {
-            for (int i = 1; i <= rsmd.getColumnCount(); i++)
+            builder.append(" where ");
+            builder.append(criteria);
+        }
+        
+        var all = new Object[values.size() + params.length];
+        values.toArray(all);
+        System.arraycopy(params, 0, all, values.size(), params.length);
+        
+        return executeUpdate(builder.toString(), all);
+    }
+    
+    /**
+     * <code>DELETE</code> statement
+     * @param tableName the table name
+     * @param criteria the <code>WHERE</code> clause criteria
+     * @throws SQLException if SQL exception occurred
+     */
+    public void delete(String tableName, String criteria) throws SQLException
+    {
+        executeUpdate("delete from " + tableName + ((criteria == null ? "" :
+                (criteria.isBlank() ? "" : " where ".concat(criteria)))));
+    }
+    
+    /**
+     * parameterized <code>DELETE</code> statement
+     * @param tableName the table name
+     * @param criteria the <code>WHERE</code> clause criteria with 
+     *  <code>?</code> placeholders
+     * @param params the criteria parameters values
+     * @return the number of deleted rows
+     * @throws SQLException if SQL exception occurred
+     */
+    public int deletePrepared(String tableName, String criteria, 
+        Object... params) throws SQLException
+    {
+        return executeUpdate("delete from " + tableName + ((criteria == null ? "" :
+                (criteria.isBlank() ? "" : " where ".concat(criteria)))), params);
+    }
+    
+    /**
+     * show the table in the standard output stream
+     * @param tableName the table name
+     * @throws SQLException if SQL exception occurred
+     */
+    public void showTable(String tableName) throws SQLException
+    {
+        showTable(tableName, List.of("*"), "");
+    }
+    
+    /**
+     * show the table in standard output stream
+     * @param tableName the table name
+     * @param columns columns names
+     * @param others other SQL
+     * @throws SQLException if SQL exception occurred
+     * @see #export(java.io.Writer, ilyriadz.database.ExportFormat, java.lang.String, java.lang.Object...) 
+     */
+    public void showTable(String tableName, List<String> columns, String others) 
+            throws SQLException
+    {
+        try {
+            export(new OutputStreamWriter(System.out, System.out.charset()),
+                ExportFormat.FIXED_WIDTH, buildString("select ",
+                    String.join(", ", columns), " from ", tableName, " ", 
+                    others).toString());
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+    
+    /**
+     * export the rows of a query as text<br>
+     * the rows are read by a forward-only cursor fetching 
+     * {@link #DEFAULT_FETCH_SIZE} rows at once and formatted into one 
+     * reusable buffer, so the memory used does not depend on the number of
+     * rows.
+     * @param out the Writer, it is flushed and not closed
+     * @param format the text format
+     * @param sql the SQL query with <code>?</code> placeholders
+     * @param params the parameters values
+     * @return the number of exported rows
+     * @throws IOException if the rows can not be written
+     * @throws SQLException if SQL exception occurred
+     */
+    public long export(Writer out, ExportFormat format, String sql, 
+        Object... params) throws IOException, SQLException
+    {
+        Objects.requireNonNull(out);
+        Objects.requireNonNull(format);
+        Objects.requireNonNull(sql);
+        
+        try {
+            var rows = withCursor(sql, DEFAULT_FETCH_SIZE, params, rs -> 
             {
-                System.out.printf("%-20s", rs.getString(i));
-            } // end for
+                try {
+                    return TableExporter.export(rs, format, out);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
             
-            System.out.println();
-        } // end while
+            var entry = metricsEntry(sql);
+            if (entry != null)
+                entry.read(rows);
+            return rows;
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+    }
+    
+    /**
+     * export the rows of a query as UTF-8 text
+     * @param out the OutputStream, it is flushed and not closed
+     * @param format the text format
+     * @param sql the SQL query with <code>?</code> placeholders
+     * @param params the parameters values
+     * @return the number of exported rows
+     * @throws IOException if the rows can not be written
+     * @throws SQLException if SQL exception occurred
+     * @see #export(java.io.Writer, ilyriadz.database.ExportFormat, java.lang.String, java.lang.Object...) 
+     */
+    public long export(OutputStream out, ExportFormat format, String sql, 
+        Object... params) throws IOException, SQLException
+    {
+        return export(new OutputStreamWriter(out, StandardCharsets.UTF_8), 
+            format, sql, params);
+    }
+    
+    /**
+     * export the rows of a query as UTF-8 text to a channel, a FileChannel
+     * for example
+     * @param out the channel, it is not closed
+     * @param format the text format
+     * @param sql the SQL query with <code>?</code> placeholders
+     * @param params the parameters values
+     * @return the number of exported rows
+     * @throws IOException if the rows can not be written
+     * @throws SQLException if SQL exception occurred
+     * @see #export(java.io.Writer, ilyriadz.database.ExportFormat, java.lang.String, java.lang.Object...) 
+     */
+    public long export(WritableByteChannel out, ExportFormat format, 
+        String sql, Object... params) throws IOException, SQLException
+    {
+        // the channel is written by the encoder of the Writer, which is
+        // flushed but not closed to keep the channel open
+        return export(Channels.newWriter(out, StandardCharsets.UTF_8), format,
+            sql, params);
+    }
+    
+    /**
+     * export the rows of a table as text
+     * @param out the Writer, it is flushed and not closed
+     * @param format the text format
+     * @param tableName the table name
+     * @param others other SQL after table name with <code>?</code> placeholders
+     * @param params the parameters values
+     * @return the number of exported rows
+     * @throws IOException if the rows can not be written
+     * @throws SQLException if SQL exception occurred
+     * @see #export(java.io.Writer, ilyriadz.database.ExportFormat, java.lang.String, java.lang.Object...) 
+     */
+    public long exportTable(Writer out, ExportFormat format, String tableName,
+        String others, Object... params) throws IOException, SQLException
+    {
+        return export(out, format, "select * from ".concat(tableName)
+            .concat(" ").concat(others), params);
+    }
+    
+    private <R> R withCursor(String sql, int fetchSize, Object[] params,
+        SqlFunction<ResultSet, R> work) throws SQLException
+    {
+        var pc = acquire();
+        try (var ps = pc.connection().prepareStatement(sql, 
+            ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY))
+        {
+            ps.setFetchSize(fetchSize);
+            bind(ps, params);
+            try (var rs = run(ps, sql, params, PreparedStatement::executeQuery))
+            {
+                return work.apply(rs);
+            }
+        } finally {
+            release(pc);
+        }
     }
 }
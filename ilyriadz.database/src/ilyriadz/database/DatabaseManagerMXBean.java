@@ -0,0 +1,60 @@
+/*
+ * Copyright 2023 Ilyes Sadaoui.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ilyriadz.database;
+
+import java.util.List;
+
+/**
+ * the statements metrics of a DatabaseManager, published on the platform
+ * MBeanServer by <code>DatabaseManager.enableMetrics(String)</code> as
+ * <code>ilyriadz.database:type=DatabaseManager,name=...</code>
+ *
+ * @author Ilyes Sadaoui
+ */
+public interface DatabaseManagerMXBean
+{
+    /**
+     * @return the number of executed statements
+     */
+    long getStatementCount();
+
+    /**
+     * @return the number of statements which threw an exception
+     */
+    long getFailedStatementCount();
+
+    /**
+     * @return the number of rows written by the statements or read from
+     *  their results by the mapping and the export, the rows of a 
+     *  ResultSet returned by <code>executeQuery</code> are not counted
+     */
+    long getRowCount();
+
+    /**
+     * @return the number of rows mapped to objects
+     */
+    long getMappedRowCount();
+
+    /**
+     * @return the metrics by table and operation, the slowest total first
+     */
+    List<StatementStatistics> getStatementStatistics();
+
+    /**
+     * reset all the metrics to zero
+     */
+    void reset();
+}
@@ -0,0 +1,796 @@
+/*
+ * Copyright 2023 Ilyes Sadaoui.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ilyriadz.database;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.RecordComponent;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * maps the rows of a table to the objects of a class.<br>
+ * the columns are matched to the class fields by name ignoring the case.
+ * if the class has a {@link TableMapping} generated by the 
+ * <code>ilyriadz.database.processor</code> annotation processor the mapper
+ * delegates to it, else the mapper is compiled once by class to method
+ * handles, so reading a row is a loop over typed setters with no reflection
+ * and no boxing of the primitive fields.<br>
+ * a record is created by its canonical constructor, the columns are matched
+ * to its components and the missing ones are given their default value.<br>
+ * warning: if you are using the module system and the class has no 
+ *  generated mapping you must open your module or package to 
+ *  <code>ilyria.database</code> module to use this class.
+ *
+ * @param <T> the class type
+ * @author Ilyes Sadaoui
+ */
+public final class EntityMapper<T>
+{
+    private static final ClassValue<EntityMapper<?>> MAPPERS = new ClassValue<>()
+    {
+        @Override
+        protected EntityMapper<?> computeValue(Class<?> type)
+        {
+            return new EntityMapper<>(type);
+        }
+    };
+    
+    private static final Map<Class<?>, TableMapping<?>> GENERATED = 
+        new ConcurrentHashMap<>();
+
+    /**
+     * sets a column value of the current row to a field of the target
+     */
+    @FunctionalInterface
+    private interface ColumnReader
+    {
+        void read(ResultSet rs, int column, Object target) throws Throwable;
+    }
+
+    /**
+     * reads a column value of the current row for a record component
+     */
+    @FunctionalInterface
+    private interface ValueReader
+    {
+        Object read(ResultSet rs, int column) throws SQLException;
+    }
+
+    /**
+     * sets a field of the source to a parameter of a statement
+     */
+    @FunctionalInterface
+    private interface ColumnWriter
+    {
+        void write(PreparedStatement ps, int index, Object source) throws Throwable;
+    }
+
+    private record Property(Field field, ColumnReader reader, MethodHandle setter,
+        MethodHandle getter)
+    {
+    }
+
+    private final Class<T> type;
+    private final TableMapping<T> generated;
+    private final MethodHandle constructor;
+    private final MethodHandle canonical;
+    private final Map<String, Integer> components = new HashMap<>();
+    private final ValueReader[] componentReaders;
+    private final Object[] defaults;
+    private final List<String> selection;
+    private final Map<String, Property> properties = new HashMap<>();
+    private final List<Field> fields;
+    private final List<String> columns;
+    private final List<Class<?>> columnTypes;
+    private final List<String> columnDefinitions;
+    private final MethodHandle[] getters;
+    private final ColumnWriter[] writers;
+    private final List<Class<?>> propertyTypes;
+    private final Map<String, Integer> propertyIndexes = new HashMap<>();
+    private final ValueReader[] valueReaders;
+    private final MethodHandle[] setters;
+
+    @SuppressWarnings("unchecked")
+    private EntityMapper(Class<T> type)
+    {
+        this.type = type;
+        this.generated = (TableMapping<T>) generated(type);
+        
+        if (generated != null)
+        {
+            constructor = null;
+            canonical = null;
+            componentReaders = null;
+            defaults = null;
+            getters = null;
+            writers = null;
+            columns = List.copyOf(generated.columns());
+            columnTypes = List.copyOf(generated.columnTypes());
+            columnDefinitions = List.copyOf(generated.columnDefinitions());
+            fields = columns.stream().map(this::declaredField).toList();
+            selection = type.isRecord() ? componentNames(type) : columns;
+            propertyTypes = List.copyOf(generated.propertyTypes());
+            var names = generated.properties();
+            for (int i = 0; i < names.size(); i++)
+                propertyIndexes.put(names.get(i).toLowerCase(Locale.ROOT), i);
+            valueReaders = propertyTypes.stream()
+                .map(EntityMapper::valueReader)
+                .toArray(ValueReader[]::new);
+            setters = null;
+            return;
+        } // end if
+
+        try {
+            EntityMapper.class.getModule().addReads(type.getModule());
+            var lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+
+            var record = type.isRecord();
+            constructor = record ? null : findConstructor(lookup, type);
+            canonical = record ? canonicalConstructor(lookup, type) : null;
+
+            var recordComponents = record ? type.getRecordComponents() :
+                new RecordComponent[0];
+            componentReaders = new ValueReader[recordComponents.length];
+            defaults = new Object[recordComponents.length];
+            for (int i = 0; i < recordComponents.length; i++)
+            {
+                var componentType = recordComponents[i].getType();
+                components.put(recordComponents[i].getName()
+                    .toLowerCase(Locale.ROOT), i);
+                componentReaders[i] = valueReader(componentType);
+                defaults[i] = componentType.isPrimitive() ?
+                    Array.get(Array.newInstance(componentType, 1), 0) : null;
+            } // end for
+
+            var tagged = new ArrayList<Field>();
+            var settable = new ArrayList<Property>();
+            for (var field : type.getDeclaredFields())
+            {
+                if (Modifier.isStatic(field.getModifiers()))
+                    continue;
+
+                var getter = lookup.unreflectGetter(field)
+                    .asType(MethodType.methodType(Object.class, Object.class));
+                // the fields of a record are final, it is read by its
+                // canonical constructor
+                var property = record ? new Property(field, null, null, getter) :
+                    new Property(field, columnReader(lookup, field), 
+                        lookup.unreflectSetter(field).asType(MethodType
+                            .methodType(void.class, Object.class, Object.class)),
+                        getter);
+                properties.put(field.getName().toLowerCase(Locale.ROOT), property);
+                if (!record)
+                    settable.add(property);
+
+                if (field.getAnnotation(TypeProperties.class) != null)
+                    tagged.add(field);
+            } // end for
+
+            fields = Collections.unmodifiableList(tagged);
+            columns = tagged.stream().map(Field::getName).toList();
+            columnTypes = tagged.stream()
+                .<Class<?>>map(Field::getType)
+                .toList();
+            columnDefinitions = tagged.stream()
+                .map(EntityMapper::columnDefinition)
+                .toList();
+            getters = tagged.stream()
+                .map(field -> properties.get(field.getName()
+                    .toLowerCase(Locale.ROOT)).getter())
+                .toArray(MethodHandle[]::new);
+
+            writers = new ColumnWriter[tagged.size()];
+            for (int i = 0; i < writers.length; i++)
+                writers[i] = columnWriter(lookup, tagged.get(i));
+
+            selection = record ? componentNames(type) : columns;
+            
+            if (record)
+            {
+                propertyTypes = Arrays.stream(recordComponents)
+                    .<Class<?>>map(RecordComponent::getType)
+                    .toList();
+                propertyIndexes.putAll(components);
+                valueReaders = componentReaders;
+                setters = null;
+            }
+            else
+            {
+                propertyTypes = settable.stream()
+                    .<Class<?>>map(property -> property.field().getType())
+                    .toList();
+                for (int i = 0; i < settable.size(); i++)
+                    propertyIndexes.put(settable.get(i).field().getName()
+                        .toLowerCase(Locale.ROOT), i);
+                valueReaders = propertyTypes.stream()
+                    .map(EntityMapper::valueReader)
+                    .toArray(ValueReader[]::new);
+                setters = settable.stream()
+                    .map(Property::setter)
+                    .toArray(MethodHandle[]::new);
+            } // end if
+        } catch (IllegalAccessException ex) {
+            throw new MappingException(type.getName() +
+                " is not open to the ilyriadz.database module", ex);
+        }
+    }
+
+    /**
+     * the mapper of a class, compiled on the first call
+     * @param <T> the class type
+     * @param cls the mapped class
+     * @return the mapper of cls
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> EntityMapper<T> of(Class<T> cls)
+    {
+        return (EntityMapper<T>) MAPPERS.get(cls);
+    }
+    
+    /**
+     * register a generated mapping, called by the generated mappings when
+     * they are loaded
+     * @param <T> the class type
+     * @param mapping the mapping of a class
+     */
+    public static <T> void register(TableMapping<T> mapping)
+    {
+        GENERATED.put(mapping.type(), mapping);
+    }
+    
+    /**
+     * load the generated mapping of a class, its name is the binary name of
+     * the class with <code>$</code> replaced by <code>_</code> and followed 
+     * by <code>_TableMapping</code>
+     */
+    private static TableMapping<?> generated(Class<?> type)
+    {
+        var mapping = GENERATED.get(type);
+        if (mapping != null)
+            return mapping;
+        
+        try {
+            Class.forName(type.getName().replace('$', '_') + "_TableMapping", 
+                true, type.getClassLoader());
+        } catch (ClassNotFoundException | LinkageError ex) {
+            return null; // mapped by reflection
+        }
+        
+        return GENERATED.get(type);
+    }
+    
+    private Field declaredField(String name)
+    {
+        try {
+            return type.getDeclaredField(name);
+        } catch (NoSuchFieldException ex) {
+            throw new MappingException(type.getName() + 
+                " does not match its generated mapping, rebuild it", ex);
+        }
+    }
+    
+    private static String columnDefinition(Field field)
+    {
+        return field.getName().concat(" ").concat(sqlType(field.getType()))
+            .concat(" ").concat(field.getAnnotation(TypeProperties.class).value());
+    }
+    
+    /**
+     * the SQL type of the column of a field type, the enums are stored by
+     * ordinal and the types not listed as <code>VARCHAR</code>
+     * @param type the field type
+     * @return the SQL type
+     */
+    static String sqlType(Class<?> type)
+    {
+        if (type.isEnum())
+            return "integer";
+        
+        return switch (type.getName())
+        {
+            case "int", "java.lang.Integer" -> "integer";
+            case "long", "java.lang.Long" -> "bigint";
+            case "short", "java.lang.Short" -> "smallint";
+            case "byte", "java.lang.Byte" -> "tinyint";
+            case "float", "java.lang.Float" -> "float";
+            case "double", "java.lang.Double" -> "double";
+            case "boolean", "java.lang.Boolean" -> "boolean";
+            case "java.math.BigDecimal" -> "decimal";
+            case "java.time.LocalDate" -> "date";
+            case "java.time.LocalTime" -> "time";
+            case "java.time.LocalDateTime" -> "timestamp";
+            case "java.time.OffsetDateTime", "java.time.Instant" -> 
+                "timestamp with time zone";
+            case "[B" -> "varbinary";
+            default -> "varchar";
+        };
+    }
+
+    private static MethodHandle findConstructor(MethodHandles.Lookup lookup,
+        Class<?> type) throws IllegalAccessException
+    {
+        try {
+            return lookup.findConstructor(type, MethodType.methodType(void.class))
+                .asType(MethodType.methodType(Object.class));
+        } catch (NoSuchMethodException ex) {
+            return null; // reported when a row is read
+        }
+    }
+
+    private static MethodHandle canonicalConstructor(MethodHandles.Lookup lookup,
+        Class<?> type) throws IllegalAccessException
+    {
+        var parameters = Arrays.stream(type.getRecordComponents())
+            .map(RecordComponent::getType)
+            .toArray(Class<?>[]::new);
+        try {
+            return lookup.findConstructor(type, 
+                MethodType.methodType(void.class, parameters))
+                .asSpreader(Object[].class, parameters.length)
+                .asType(MethodType.methodType(Object.class, Object[].class));
+        } catch (NoSuchMethodException ex) {
+            throw new MappingException(type.getName() + 
+                " has no canonical constructor", ex);
+        }
+    }
+    
+    private static List<String> componentNames(Class<?> type)
+    {
+        return Arrays.stream(type.getRecordComponents())
+            .map(RecordComponent::getName)
+            .toList();
+    }
+
+    private static ValueReader valueReader(Class<?> type)
+    {
+        if (type == int.class)
+            return ResultSet::getInt;
+        if (type == long.class)
+            return ResultSet::getLong;
+        if (type == double.class)
+            return ResultSet::getDouble;
+        if (type == float.class)
+            return ResultSet::getFloat;
+        if (type == boolean.class)
+            return ResultSet::getBoolean;
+        if (type == short.class)
+            return ResultSet::getShort;
+        if (type == byte.class)
+            return ResultSet::getByte;
+        if (type == String.class)
+            return ResultSet::getString;
+        if (type == BigDecimal.class)
+            return ResultSet::getBigDecimal;
+        if (type == byte[].class)
+            return ResultSet::getBytes;
+        if (type.isEnum())
+        {
+            var constants = type.getEnumConstants();
+            return (rs, i) ->
+            {
+                var ordinal = rs.getInt(i);
+                return rs.wasNull() ? null : constants[ordinal];
+            };
+        } // end if
+
+        return (rs, i) -> rs.getObject(i, type);
+    }
+
+    private static ColumnReader columnReader(MethodHandles.Lookup lookup,
+        Field field) throws IllegalAccessException
+    {
+        var setter = lookup.unreflectSetter(field);
+        var fieldType = field.getType();
+        var mh = setter.asType(MethodType.methodType(void.class, Object.class,
+            fieldType.isPrimitive() ? fieldType : Object.class));
+
+        if (fieldType == int.class)
+            return (rs, i, target) -> { mh.invokeExact(target, rs.getInt(i)); };
+        if (fieldType == long.class)
+            return (rs, i, target) -> { mh.invokeExact(target, rs.getLong(i)); };
+        if (fieldType == double.class)
+            return (rs, i, target) -> { mh.invokeExact(target, rs.getDouble(i)); };
+        if (fieldType == float.class)
+            return (rs, i, target) -> { mh.invokeExact(target, rs.getFloat(i)); };
+        if (fieldType == boolean.class)
+            return (rs, i, target) -> { mh.invokeExact(target, rs.getBoolean(i)); };
+        if (fieldType == short.class)
+            return (rs, i, target) -> { mh.invokeExact(target, rs.getShort(i)); };
+        if (fieldType == byte.class)
+            return (rs, i, target) -> { mh.invokeExact(target, rs.getByte(i)); };
+        if (fieldType == String.class)
+            return (rs, i, target) -> { mh.invokeExact(target, (Object) rs.getString(i)); };
+        if (fieldType == BigDecimal.class)
+            return (rs, i, target) -> { mh.invokeExact(target, (Object) rs.getBigDecimal(i)); };
+        if (fieldType == byte[].class)
+            return (rs, i, target) -> { mh.invokeExact(target, (Object) rs.getBytes(i)); };
+        if (fieldType.isEnum())
+        {
+            var constants = fieldType.getEnumConstants();
+            return (rs, i, target) ->
+            {
+                var ordinal = rs.getInt(i);
+                mh.invokeExact(target, rs.wasNull() ? null : constants[ordinal]);
+            };
+        } // end if
+
+        // java.time and the wrapper types by the JDBC 4.2 typed getter
+        return (rs, i, target) ->
+        {
+            mh.invokeExact(target, (Object) rs.getObject(i, fieldType));
+        };
+    }
+
+    private static ColumnWriter columnWriter(MethodHandles.Lookup lookup,
+        Field field) throws IllegalAccessException
+    {
+        var fieldType = field.getType();
+        var mh = lookup.unreflectGetter(field).asType(MethodType.methodType(
+            fieldType.isPrimitive() ? fieldType : Object.class, Object.class));
+
+        if (fieldType == int.class)
+            return (ps, i, source) -> ps.setInt(i, (int) mh.invokeExact(source));
+        if (fieldType == long.class)
+            return (ps, i, source) -> ps.setLong(i, (long) mh.invokeExact(source));
+        if (fieldType == double.class)
+            return (ps, i, source) -> ps.setDouble(i, (double) mh.invokeExact(source));
+        if (fieldType == float.class)
+            return (ps, i, source) -> ps.setFloat(i, (float) mh.invokeExact(source));
+        if (fieldType == boolean.class)
+            return (ps, i, source) -> ps.setBoolean(i, (boolean) mh.invokeExact(source));
+        if (fieldType == short.class)
+            return (ps, i, source) -> ps.setShort(i, (short) mh.invokeExact(source));
+        if (fieldType == byte.class)
+            return (ps, i, source) -> ps.setByte(i, (byte) mh.invokeExact(source));
+        if (fieldType == BigDecimal.class)
+            return (ps, i, source) -> ps.setBigDecimal(i, (BigDecimal) (Object) mh.invokeExact(source));
+        if (fieldType == byte[].class)
+            return (ps, i, source) -> ps.setBytes(i, (byte[]) (Object) mh.invokeExact(source));
+        if (fieldType.isEnum())
+        {
+            return (ps, i, source) ->
+            {
+                var value = (Enum<?>) (Object) mh.invokeExact(source);
+                if (value == null)
+                    ps.setNull(i, Types.INTEGER);
+                else
+                    ps.setInt(i, value.ordinal());
+            };
+        } // end if
+
+        return (ps, i, source) -> ps.setObject(i, (Object) mh.invokeExact(source));
+    }
+
+    /**
+     * @return the mapped class
+     */
+    public Class<T> type()
+    {
+        return type;
+    }
+
+    /**
+     * @return the fields tagged with <code>{@literal @}TypeProperties</code>
+     *  in declaration order
+     */
+    public List<Field> fields()
+    {
+        return fields;
+    }
+
+    /**
+     * @return the names of the fields tagged with
+     *  <code>{@literal @}TypeProperties</code> in declaration order
+     */
+    public List<String> columns()
+    {
+        return columns;
+    }
+    
+    /**
+     * @return the types of the {@link #columns()} fields
+     */
+    public List<Class<?>> columnTypes()
+    {
+        return columnTypes;
+    }
+    
+    /**
+     * @return the <code>CREATE TABLE</code> definitions of the 
+     *  {@link #columns()}
+     */
+    public List<String> columnDefinitions()
+    {
+        return columnDefinitions;
+    }
+    
+    /**
+     * the columns of a projection of the class, the components of a record
+     * or the {@link #columns()} of a class
+     * @return the names of the selected columns
+     */
+    public List<String> selection()
+    {
+        return selection;
+    }
+    
+    /**
+     * @return true if this mapper delegates to a generated 
+     *  {@link TableMapping}
+     */
+    public boolean isGenerated()
+    {
+        return generated != null;
+    }
+
+    /**
+     * the value of a column of an object
+     * @param entity the object
+     * @param column the index of the column in {@link #columns()}
+     * @return the field value of the column
+     */
+    public Object get(T entity, int column)
+    {
+        if (generated != null)
+            return generated.get(entity, column);
+        
+        try {
+            return getters[column].invokeExact((Object) entity);
+        } catch (RuntimeException | Error ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw new MappingException("can not read " + columns.get(column), ex);
+        }
+    }
+
+    /**
+     * bind the values of the {@link #columns()} of an object to the 
+     * parameters of a statement
+     * @param ps the statement
+     * @param firstIndex the index of the parameter of the first column
+     * @param entity the object
+     * @throws SQLException if SQL exception occurred
+     */
+    public void bind(PreparedStatement ps, int firstIndex, T entity) 
+        throws SQLException
+    {
+        if (generated != null)
+        {
+            generated.bind(ps, firstIndex, entity);
+            return;
+        }
+        
+        try {
+            for (int i = 0; i < writers.length; i++)
+                writers[i].write(ps, firstIndex + i, entity);
+        } catch (SQLException | RuntimeException | Error ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw new MappingException("can not bind " + type.getName(), ex);
+        }
+    }
+
+    /**
+     * create a reader for the rows of a ResultSet, the columns are matched
+     * to the fields once here and not for every row.<br>
+     * the columns without a field with the same name are ignored.
+     * @param rsmd the ResultSet metadata
+     * @return the row reader
+     * @throws SQLException if SQL exception occurred
+     */
+    public RowReader<T> reader(ResultSetMetaData rsmd) throws SQLException
+    {
+        if (generated != null)
+            return generated.reader(rsmd);
+        
+        if (canonical != null)
+            return recordReader(rsmd);
+        
+        if (constructor == null)
+            throw new MappingException(type.getName() +
+                " has no constructor without parameters");
+
+        var count = rsmd.getColumnCount();
+        var indexes = new int[count];
+        var readers = new ColumnReader[count];
+        var n = 0;
+
+        for (int i = 1; i <= count; i++)
+        {
+            var property = properties.get(rsmd.getColumnLabel(i)
+                .toLowerCase(Locale.ROOT));
+            if (property != null)
+            {
+                indexes[n] = i;
+                readers[n++] = property.reader();
+            }
+        } // end for
+
+        final var size = n;
+        final var ctor = constructor;
+        return rs ->
+        {
+            try {
+                var target = ctor.invokeExact();
+                for (int k = 0; k < size; k++)
+                    readers[k].read(rs, indexes[k], target);
+
+                return type.cast(target);
+            } catch (SQLException | RuntimeException | Error ex) {
+                throw ex;
+            } catch (Throwable ex) {
+                throw new MappingException("can not map a row to " +
+                    type.getName(), ex);
+            }
+        };
+    }
+
+    private RowReader<T> recordReader(ResultSetMetaData rsmd) throws SQLException
+    {
+        // the column of every component, 0 if it is not selected
+        var indexes = new int[componentReaders.length];
+        for (int i = rsmd.getColumnCount(); i >= 1; i--)
+        {
+            var component = components.get(rsmd.getColumnLabel(i)
+                .toLowerCase(Locale.ROOT));
+            if (component != null)
+                indexes[component] = i;
+        } // end for
+
+        final var ctor = canonical;
+        return rs ->
+        {
+            var arguments = new Object[indexes.length];
+            for (int k = 0; k < indexes.length; k++)
+                arguments[k] = indexes[k] == 0 ? defaults[k] :
+                    componentReaders[k].read(rs, indexes[k]);
+
+            try {
+                return type.cast(ctor.invokeExact(arguments));
+            } catch (RuntimeException | Error ex) {
+                throw ex;
+            } catch (Throwable ex) {
+                throw new MappingException("can not map a row to " +
+                    type.getName(), ex);
+            }
+        };
+    }
+
+    /**
+     * @return the types of the fields set from a row, the components of a
+     *  record or the fields of a class, see {@link TableMapping#properties()}
+     */
+    List<Class<?>> propertyTypes()
+    {
+        return propertyTypes;
+    }
+    
+    /**
+     * match the columns of a ResultSet to the {@link #propertyTypes()}
+     * fields, the columns without a field with the same name are ignored
+     * @param rsmd the ResultSet metadata
+     * @return the column of every property, 0 if it is not selected
+     * @throws SQLException if SQL exception occurred
+     */
+    int[] propertyColumns(ResultSetMetaData rsmd) throws SQLException
+    {
+        if (generated == null && canonical == null && constructor == null)
+            throw new MappingException(type.getName() +
+                " has no constructor without parameters");
+        
+        var indexes = new int[propertyTypes.size()];
+        for (int i = 1; i <= rsmd.getColumnCount(); i++)
+        {
+            var property = propertyIndexes.get(rsmd.getColumnLabel(i)
+                .toLowerCase(Locale.ROOT));
+            if (property != null)
+                indexes[property] = i;
+        } // end for
+        
+        return indexes;
+    }
+    
+    /**
+     * read the property values of the current row by their typed getters
+     * @param rs the ResultSet
+     * @param indexes the columns returned by {@link #propertyColumns}
+     * @return the values, null for the properties which are not selected
+     * @throws SQLException if SQL exception occurred
+     */
+    Object[] values(ResultSet rs, int[] indexes) throws SQLException
+    {
+        var values = new Object[indexes.length];
+        for (int k = 0; k < indexes.length; k++)
+        {
+            if (indexes[k] != 0)
+                values[k] = valueReaders[k].read(rs, indexes[k]);
+        } // end for
+        
+        return values;
+    }
+    
+    /**
+     * create an object from the values of its properties, see 
+     * {@link TableMapping#create(java.lang.Object[], boolean[])}
+     * @param values the values read by {@link #values}
+     * @param selected true for the properties which have a value
+     * @return the new object
+     */
+    T create(Object[] values, boolean[] selected)
+    {
+        if (generated != null)
+            return generated.create(values, selected);
+        
+        try {
+            if (canonical != null)
+            {
+                var arguments = new Object[values.length];
+                for (int k = 0; k < values.length; k++)
+                    arguments[k] = selected[k] ? values[k] : defaults[k];
+                
+                return type.cast(canonical.invokeExact(arguments));
+            } // end if
+            
+            var target = constructor.invokeExact();
+            for (int k = 0; k < setters.length; k++)
+            {
+                if (selected[k])
+                    setters[k].invokeExact(target, values[k]);
+            } // end for
+            
+            return type.cast(target);
+        } catch (RuntimeException | Error ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw new MappingException("can not map a row to " +
+                type.getName(), ex);
+        }
+    }
+
+    /**
+     * read all the remaining rows of a ResultSet
+     * @param rs the ResultSet
+     * @return the list of the objects
+     * @throws SQLException if SQL exception occurred
+     */
+    public List<T> readAll(ResultSet rs) throws SQLException
+    {
+        var reader = reader(rs.getMetaData());
+        List<T> lst = new ArrayList<>();
+
+        while (rs.next())
+            lst.add(reader.read(rs));
+
+        return lst;
+    }
+}
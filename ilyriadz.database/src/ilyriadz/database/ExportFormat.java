@@ -0,0 +1,45 @@
+/*
+ * Copyright 2023 Ilyes Sadaoui.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ilyriadz.database;
+
+/**
+ * the text formats of an export
+ *
+ * @author Ilyes Sadaoui
+ * @see DatabaseManager#export(java.io.Writer, ilyriadz.database.ExportFormat, java.lang.String, java.lang.Object...) 
+ */
+public enum ExportFormat
+{
+    /**
+     * comma separated values with a header line, a value holding a comma, a
+     * quote or a line break is quoted and a null is an empty value
+     */
+    CSV,
+
+    /**
+     * one JSON object by row keyed by the columns labels, the numbers and the
+     * booleans are not quoted except NaN and the infinities, and the binary
+     * values are encoded in base64
+     */
+    JSON_LINES,
+
+    /**
+     * aligned columns with a header line, every column is as wide as its
+     * label or its display size up to 40 characters, the longer values are
+     * not truncated
+     */
+    FIXED_WIDTH
+}
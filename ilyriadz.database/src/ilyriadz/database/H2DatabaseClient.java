@@ -29,6 +29,9 @@ import java.sql.SQLException;
  */
 public class H2DatabaseClient extends H2Database
 {
+    public H2DatabaseClient()
+    {
+    }
 
     @Override
     protected String jdbc() {
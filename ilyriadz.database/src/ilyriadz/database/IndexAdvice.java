@@ -0,0 +1,59 @@
+/*
+ * Copyright 2023 Ilyes Sadaoui.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ilyriadz.database;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * an index missing for observed query shapes
+ *
+ * @param table the table name in lower case
+ * @param columns the index columns in order
+ * @param count the number of statements which would use the index
+ * @param totalMillis the total duration of these statements in milliseconds
+ *
+ * @author Ilyes Sadaoui
+ */
+public record IndexAdvice(String table, List<String> columns, long count,
+    double totalMillis)
+{
+    public IndexAdvice
+    {
+        Objects.requireNonNull(table);
+        columns = List.copyOf(columns);
+        if (columns.isEmpty())
+            throw new IllegalArgumentException("no index column");
+    }
+    
+    /**
+     * @return the index name: <code>idx_</code> followed by the table and 
+     *  columns names
+     */
+    public String indexName()
+    {
+        return "idx_" + table + "_" + String.join("_", columns);
+    }
+    
+    /**
+     * @return the <code>CREATE INDEX</code> statement of the index
+     */
+    public String ddl()
+    {
+        return "create index if not exists " + indexName() + " on " + table + 
+            "(" + String.join(", ", columns) + ")";
+    }
+}
@@ -0,0 +1,305 @@
+/*
+ * Copyright 2023 Ilyes Sadaoui.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ilyriadz.database;
+
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * records the shapes of the executed <code>SELECT</code>, 
+ * <code>UPDATE</code> and <code>DELETE</code> statements and compares them
+ * with the indexes of their tables.<br>
+ * the advised index of a shape has its equality columns first, then its 
+ * order columns, or its first range column if it is not ordered. an index 
+ * is advised only if no existing index starts with the same columns, the 
+ * columns unknown by the table, from a joined table or a subquery, are 
+ * ignored.
+ *
+ * @author Ilyes Sadaoui
+ */
+final class IndexAdvisor
+{
+    private static final Pattern WHERE = Pattern.compile(
+        "\\bwhere\\b(.*?)(?:\\border\\s+by\\b|\\bgroup\\s+by\\b|\\blimit\\b|" +
+        "\\boffset\\b|\\bfetch\\b|\\bfor\\s+update\\b|$)",
+        Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    
+    private static final Pattern ORDER_BY = Pattern.compile(
+        "\\border\\s+by\\b(.*?)(?:\\blimit\\b|\\boffset\\b|\\bfetch\\b|" +
+        "\\bfor\\s+update\\b|$)",
+        Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    
+    /**
+     * a column compared to something, the comparison is in group 2
+     */
+    private static final Pattern PREDICATE = Pattern.compile(
+        "([A-Za-z_][\\w.]*|\"[^\"]+\")\\s*" +
+        "(=|<>|!=|<=|>=|<|>|\\s(?:not\\s+)?(?:like|in|between|is)\\b)",
+        Pattern.CASE_INSENSITIVE);
+    
+    private static final Pattern ORDER_COLUMN = Pattern.compile(
+        "^\\s*([A-Za-z_][\\w.]*|\"[^\"]+\")\\s*(?:asc|desc)?\\s*" +
+        "(?:nulls\\s+(?:first|last))?\\s*$", Pattern.CASE_INSENSITIVE);
+    
+    private static final int MAX_STATEMENTS = 4096;
+    
+    private record Key(String table, String operation, List<String> equalities,
+        List<String> ranges, List<String> orders)
+    {
+        /**
+         * @return the columns of the index serving the shape
+         */
+        private List<String> indexColumns()
+        {
+            var columns = new LinkedHashSet<>(equalities);
+            if (!orders.isEmpty())
+                columns.addAll(orders);
+            else if (!ranges.isEmpty())
+                columns.add(ranges.get(0));
+            
+            return List.copyOf(columns);
+        }
+    }
+    
+    private static final class Counters
+    {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+    }
+    
+    // the key of the statements filtering and ordering on no column
+    private static final Key NONE = new Key("", "", List.of(), List.of(), 
+        List.of());
+    
+    private final ConcurrentHashMap<Key, Counters> shapes = 
+        new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Key> statements = 
+        new ConcurrentHashMap<>();
+    
+    /**
+     * record an executed statement
+     * @param sql the SQL statement
+     * @param nanos the duration of the execution
+     */
+    void executed(String sql, long nanos)
+    {
+        var key = statements.get(sql);
+        if (key == null)
+        {
+            key = key(sql);
+            if (statements.size() < MAX_STATEMENTS)
+                statements.putIfAbsent(sql, key);
+        } // end if
+        
+        if (key == NONE)
+            return;
+        
+        var counters = shapes.computeIfAbsent(key, k -> new Counters());
+        counters.count.increment();
+        counters.nanos.add(nanos);
+    }
+    
+    private static Key key(String sql)
+    {
+        var operation = StatementMetrics.operation(sql);
+        if (!operation.equals("select") && !operation.equals("update") && 
+            !operation.equals("delete"))
+            return NONE;
+        
+        var table = StatementMetrics.table(sql);
+        if (table.isEmpty())
+            return NONE;
+        
+        var equalities = new LinkedHashSet<String>();
+        var ranges = new LinkedHashSet<String>();
+        var where = WHERE.matcher(sql);
+        if (where.find())
+        {
+            var predicate = PREDICATE.matcher(where.group(1));
+            while (predicate.find())
+            {
+                var column = column(predicate.group(1));
+                switch (predicate.group(2).strip().toLowerCase(Locale.ROOT))
+                {
+                    case "=", "in", "is" -> equalities.add(column);
+                    case "<", ">", "<=", ">=", "between", "like" -> 
+                        ranges.add(column);
+                    default -> { } // not served by an index
+                }
+            } // end while
+        } // end if
+        ranges.removeAll(equalities);
+        
+        var orders = new ArrayList<String>();
+        var orderBy = ORDER_BY.matcher(sql);
+        if (operation.equals("select") && orderBy.find())
+        {
+            for (var term : orderBy.group(1).split(","))
+            {
+                var order = ORDER_COLUMN.matcher(term);
+                // an expression or a column position can not use an index
+                if (!order.matches())
+                    break;
+                
+                orders.add(column(order.group(1)));
+            } // end for
+        } // end if
+        
+        if (equalities.isEmpty() && ranges.isEmpty() && orders.isEmpty())
+            return NONE;
+        
+        return new Key(table, operation, List.copyOf(equalities), 
+            List.copyOf(ranges), List.copyOf(orders));
+    }
+    
+    /**
+     * @return the column name in lower case without quotes and table
+     */
+    private static String column(String name)
+    {
+        return QueryCache.normalize(name);
+    }
+    
+    /**
+     * @return the recorded shapes, the most expensive first
+     */
+    List<QueryShape> shapes()
+    {
+        var result = new ArrayList<QueryShape>(shapes.size());
+        shapes.forEach((key, counters) -> result.add(new QueryShape(key.table(),
+            key.operation(), key.equalities(), key.ranges(), key.orders(), 
+            counters.count.sum(), counters.nanos.sum() / 1_000_000d)));
+        result.sort(Comparator.comparingDouble(QueryShape::totalMillis)
+            .reversed());
+        
+        return result;
+    }
+    
+    /**
+     * compare the recorded shapes with the indexes of their tables
+     * @param metadata the metadata of the database
+     * @return the missing indexes, the most expensive first
+     * @throws SQLException if SQL exception occurred
+     */
+    List<IndexAdvice> advise(DatabaseMetaData metadata) throws SQLException
+    {
+        var columns = new HashMap<String, Set<String>>();
+        var indexes = new HashMap<String, List<List<String>>>();
+        var advice = new LinkedHashMap<List<Object>, IndexAdvice>();
+        
+        for (var shape : shapes())
+        {
+            var table = shape.table();
+            if (!columns.containsKey(table))
+            {
+                columns.put(table, columns(metadata, table));
+                indexes.put(table, indexes(metadata, table));
+            } // end if
+            
+            var known = columns.get(table);
+            var candidate = new Key(table, shape.operation(), 
+                shape.equalityColumns().stream().filter(known::contains).toList(),
+                shape.rangeColumns().stream().filter(known::contains).toList(),
+                shape.orderColumns().stream().filter(known::contains).toList())
+                .indexColumns();
+            if (candidate.isEmpty() || indexes.get(table).stream()
+                .anyMatch(index -> startsWith(index, candidate)))
+                continue;
+            
+            advice.merge(List.of(table, candidate), new IndexAdvice(table, 
+                candidate, shape.count(), shape.totalMillis()), (a, b) -> 
+                new IndexAdvice(table, candidate, a.count() + b.count(), 
+                    a.totalMillis() + b.totalMillis()));
+        } // end for
+        
+        var result = new ArrayList<>(advice.values());
+        result.sort(Comparator.comparingDouble(IndexAdvice::totalMillis)
+            .reversed());
+        
+        return result;
+    }
+    
+    private static boolean startsWith(List<String> index, List<String> columns)
+    {
+        return index.size() >= columns.size() && 
+            index.subList(0, columns.size()).equals(columns);
+    }
+    
+    private static String stored(DatabaseMetaData metadata, String table) 
+        throws SQLException
+    {
+        if (metadata.storesUpperCaseIdentifiers())
+            return table.toUpperCase(Locale.ROOT);
+        if (metadata.storesLowerCaseIdentifiers())
+            return table.toLowerCase(Locale.ROOT);
+        
+        return table;
+    }
+    
+    private static Set<String> columns(DatabaseMetaData metadata, String table)
+        throws SQLException
+    {
+        var columns = new LinkedHashSet<String>();
+        try (var rs = metadata.getColumns(null, null, stored(metadata, table), 
+            null))
+        {
+            while (rs.next())
+                columns.add(rs.getString("COLUMN_NAME").toLowerCase(Locale.ROOT));
+        }
+        
+        return columns;
+    }
+    
+    private static List<List<String>> indexes(DatabaseMetaData metadata, 
+        String table) throws SQLException
+    {
+        var indexes = new LinkedHashMap<String, Map<Integer, String>>();
+        try (var rs = metadata.getIndexInfo(null, null, stored(metadata, table), 
+            false, true))
+        {
+            while (rs.next())
+            {
+                var name = rs.getString("INDEX_NAME");
+                var column = rs.getString("COLUMN_NAME");
+                if (name == null || column == null)
+                    continue;
+                
+                indexes.computeIfAbsent(name, k -> new HashMap<>())
+                    .put(rs.getInt("ORDINAL_POSITION"), 
+                        column.toLowerCase(Locale.ROOT));
+            } // end while
+        }
+        
+        var result = new ArrayList<List<String>>(indexes.size());
+        for (var index : indexes.values())
+            result.add(index.keySet().stream().sorted().map(index::get)
+                .toList());
+        
+        return result;
+    }
+}
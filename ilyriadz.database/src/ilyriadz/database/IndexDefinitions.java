@@ -0,0 +1,98 @@
+/*
+ * Copyright 2023 Ilyes Sadaoui.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ilyriadz.database;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * builds the <code>CREATE INDEX</code> statements of the index annotations
+ * of a class: {@link Indexed}, {@link Unique} and {@link CompositeIndex}
+ *
+ * @author Ilyes Sadaoui
+ */
+final class IndexDefinitions
+{
+    private IndexDefinitions()
+    {
+    }
+    
+    /**
+     * @param tableName the table name
+     * @param cls the class of the table
+     * @return the <code>CREATE INDEX IF NOT EXISTS</code> statements of cls
+     * @throws MappingException if an index has an unknown column
+     */
+    static List<String> statements(String tableName, Class<?> cls)
+    {
+        var mapper = EntityMapper.of(cls);
+        var statements = new ArrayList<String>();
+        
+        for (var field : mapper.fields())
+        {
+            var indexed = field.getAnnotation(Indexed.class);
+            if (indexed != null)
+                statements.add(statement(tableName, indexed.value(), false, 
+                    List.of(field.getName())));
+            
+            var unique = field.getAnnotation(Unique.class);
+            if (unique != null)
+                statements.add(statement(tableName, unique.value(), true, 
+                    List.of(field.getName())));
+        } // end for
+        
+        var known = mapper.columns().stream()
+            .map(column -> column.toLowerCase(Locale.ROOT))
+            .collect(Collectors.toSet());
+        for (var index : cls.getAnnotationsByType(CompositeIndex.class))
+        {
+            if (index.columns().length == 0)
+                throw new MappingException(cls.getName() + 
+                    " has a composite index without columns");
+            if (index.unique() && index.include().length > 0)
+                throw new MappingException(cls.getName() + 
+                    " has a unique index with included columns");
+            
+            var columns = Stream.concat(Stream.of(index.columns()), 
+                Stream.of(index.include())).toList();
+            for (var column : columns)
+            {
+                if (!known.contains(column.toLowerCase(Locale.ROOT)))
+                    throw new MappingException(cls.getName() + 
+                        " has no column " + column + " to index");
+            } // end for
+            
+            statements.add(statement(tableName, index.name(), index.unique(),
+                columns));
+        } // end for
+        
+        return statements;
+    }
+    
+    private static String statement(String tableName, String name, 
+        boolean unique, List<String> columns)
+    {
+        if (name.isEmpty())
+            name = (tableName + "_" + String.join("_", columns) + 
+                (unique ? "_uk" : "_idx")).replaceAll("\\W", "_");
+        
+        return "create " + (unique ? "unique " : "") + "index if not exists " + 
+            name + " on " + tableName + "(" + String.join(", ", columns) + ")";
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2023 Ilyes Sadaoui.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ilyriadz.database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * a ResultSet returned by a pooled DatabaseManager, closing it closes its
+ * statement and gives back the borrowed connection to the pool.
+ *
+ * @author Ilyes Sadaoui
+ */
+final class LeasedResultSet implements InvocationHandler
+{
+    private final ResultSet resultSet;
+    private final Statement statement;
+    private final Runnable release;
+    private boolean closed;
+
+    private LeasedResultSet(ResultSet resultSet, Statement statement,
+        Runnable release)
+    {
+        this.resultSet = resultSet;
+        this.statement = statement;
+        this.release = release;
+    }
+
+    static ResultSet wrap(ResultSet resultSet, Statement statement,
+        Runnable release)
+    {
+        return (ResultSet) Proxy.newProxyInstance(
+            LeasedResultSet.class.getClassLoader(),
+            new Class<?>[] {ResultSet.class},
+            new LeasedResultSet(resultSet, statement, release));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args)
+        throws Throwable
+    {
+        switch (method.getName())
+        {
+            case "close" ->
+            {
+                if (args == null)
+                {
+                    close();
+                    return null;
+                }
+            } // end case
+            case "isClosed" ->
+            {
+                if (args == null)
+                    return closed || resultSet.isClosed();
+            } // end case
+            case "equals" ->
+            {
+                return proxy == args[0];
+            } // end case
+            case "hashCode" ->
+            {
+                return System.identityHashCode(proxy);
+            } // end case
+            default -> {}
+        }
+
+        try {
+            return method.invoke(resultSet, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    private synchronized void close() throws SQLException
+    {
+        if (closed)
+            return;
+        closed = true;
+        try (statement) {
+            resultSet.close();
+        } finally {
+            release.run();
+        }
+    }
+}
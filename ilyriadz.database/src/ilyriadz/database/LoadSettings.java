@@ -0,0 +1,69 @@
+/*
+ * Copyright 2023 Ilyes Sadaoui.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ilyriadz.database;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * the format of a delimited file loaded by 
+ * <code>DatabaseManager.load</code>.<br>
+ * a field can be quoted by <code>"</code> to contain the delimiter, a quote
+ * in a quoted field is doubled. a quoted field can not contain a line break.
+ *
+ * @param delimiter the fields delimiter
+ * @param header true if the first line holds the columns names and is skipped
+ * @param batchSize the number of lines validated together and inserted by
+ *        one batch
+ * @param charset the file charset
+ *
+ * @author Ilyes Sadaoui
+ */
+public record LoadSettings(char delimiter, boolean header, int batchSize,
+    Charset charset)
+{
+    public LoadSettings
+    {
+        Objects.requireNonNull(charset);
+
+        if (delimiter == '"' || delimiter == '\n' || delimiter == '\r')
+            throw new IllegalArgumentException("invalid delimiter: " + delimiter);
+        if (batchSize < 1)
+            throw new IllegalArgumentException("batchSize must be positive: " +
+                batchSize);
+    }
+
+    /**
+     * comma separated values in UTF-8 with a header line, inserted by batches
+     * of 1000 rows
+     * @return the load settings
+     */
+    public static LoadSettings csv()
+    {
+        return new LoadSettings(',', true, 1000, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * tab separated values in UTF-8 with a header line, inserted by batches
+     * of 1000 rows
+     * @return the load settings
+     */
+    public static LoadSettings tsv()
+    {
+        return new LoadSettings('\t', true, 1000, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2023 Ilyes Sadaoui.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ilyriadz.database;
+
+import java.time.Duration;
+
+/**
+ * a snapshot of the progress of a file load
+ *
+ * @param read the number of lines read
+ * @param inserted the number of rows inserted
+ * @param rejected the number of lines written to the reject file
+ * @param elapsed the time since the load started
+ *
+ * @author Ilyes Sadaoui
+ */
+public record LoadStatistics(long read, long inserted, long rejected,
+    Duration elapsed)
+{
+    /**
+     * @return the number of lines read by second
+     */
+    public double rowsPerSecond()
+    {
+        var nanos = elapsed.toNanos();
+        return nanos == 0 ? 0 : read * 1e9 / nanos;
+    }
+}
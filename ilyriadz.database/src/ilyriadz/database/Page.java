@@ -0,0 +1,41 @@
+/*
+ * Copyright 2023 Ilyes Sadaoui.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ilyriadz.database;
+
+import java.util.List;
+
+/**
+ * a page of rows read by keyset pagination
+ *
+ * @param <T> the row type
+ * @param rows the rows of the page
+ * @param next the order columns values of the last row, the continuation
+ *  token to pass as <code>afterKey</code> to read the next page, or null if
+ *  this page is the last one
+ *
+ * @author Ilyes Sadaoui
+ * @see DatabaseManager#selectPage(java.lang.String, java.lang.Class, java.util.List, java.util.List, int) 
+ */
+public record Page<T>(List<T> rows, List<Object> next)
+{
+    /**
+     * @return true if a next page exists
+     */
+    public boolean hasNext()
+    {
+        return next != null;
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2023 Ilyes Sadaoui.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ilyriadz.database;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * the settings of a pooled DatabaseManager connection.<br>
+ * pass it to <code>connect(String, String, String, PoolSettings)</code>
+ * to let the DatabaseManager borrow a connection from a bounded pool for
+ * every operation instead of sharing one Connection and one Statement.
+ *
+ * @param maxSize the maximum number of open connections
+ * @param minIdle the number of idle connections kept open by the eviction
+ * @param borrowTimeout how long a caller waits for a free connection
+ * @param idleTimeout how long a connection can stay idle before being closed,
+ *        zero disable the idle eviction
+ * @param validationTimeout the timeout in seconds of the validation done on
+ *        every borrow, zero disable the validation
+ *
+ * @author Ilyes Sadaoui
+ */
+public record PoolSettings(int maxSize, int minIdle, Duration borrowTimeout,
+    Duration idleTimeout, int validationTimeout)
+{
+    public PoolSettings
+    {
+        Objects.requireNonNull(borrowTimeout);
+        Objects.requireNonNull(idleTimeout);
+
+        if (maxSize < 1)
+            throw new IllegalArgumentException("maxSize must be positive: " + maxSize);
+        if (minIdle < 0 || minIdle > maxSize)
+            throw new IllegalArgumentException("minIdle must be between 0 and " +
+                maxSize + ": " + minIdle);
+        if (borrowTimeout.isNegative())
+            throw new IllegalArgumentException("negative borrowTimeout: " + borrowTimeout);
+        if (idleTimeout.isNegative())
+            throw new IllegalArgumentException("negative idleTimeout: " + idleTimeout);
+        if (validationTimeout < 0)
+            throw new IllegalArgumentException("negative validationTimeout: " +
+                validationTimeout);
+    }
+
+    /**
+     * pool settings with default values: one connection kept idle, 30 seconds
+     * borrow timeout, 10 minutes idle timeout and 2 seconds validation timeout
+     * @param maxSize the maximum number of open connections
+     * @return the pool settings
+     */
+    public static PoolSettings of(int maxSize)
+    {
+        return new PoolSettings(maxSize, 1, Duration.ofSeconds(30),
+            Duration.ofMinutes(10), 2);
+    }
+}
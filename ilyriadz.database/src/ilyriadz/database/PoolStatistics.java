@@ -0,0 +1,36 @@
+/*
+ * Copyright 2023 Ilyes Sadaoui.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ilyriadz.database;
+
+/**
+ * a snapshot of the connection pool metrics
+ *
+ * @param maxSize the maximum number of open connections
+ * @param open the number of open connections
+ * @param idle the number of idle connections
+ * @param active the number of borrowed connections
+ * @param waiting the number of threads waiting for a connection
+ * @param borrowed the total number of borrows
+ * @param timeouts the total number of borrows failed by timeout
+ * @param evicted the total number of connections closed by the idle eviction
+ * @param invalidated the total number of connections failed the validation
+ *
+ * @author Ilyes Sadaoui
+ */
+public record PoolStatistics(int maxSize, int open, int idle, int active,
+    int waiting, long borrowed, long timeouts, long evicted, long invalidated)
+{
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2023 Ilyes Sadaoui.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ilyriadz.database;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * a physical connection with its pool bookkeeping
+ * @author Ilyes Sadaoui
+ */
+final class PooledConnection
+{
+    private final Connection connection;
+    private volatile long lastUsed;
+    private volatile boolean pinned;
+    private StatementCache statements;
+
+    PooledConnection(Connection connection)
+    {
+        this.connection = connection;
+        touch();
+    }
+
+    Connection connection()
+    {
+        return connection;
+    }
+
+    long lastUsed()
+    {
+        return lastUsed;
+    }
+
+    StatementCache statements(StatementCache.Shared shared)
+    {
+        if (statements == null)
+            statements = new StatementCache(shared);
+        
+        return statements;
+    }
+
+    /**
+     * @return true if the connection is owned by a transaction, it is
+     *  released when the transaction ends and not after every operation
+     */
+    boolean pinned()
+    {
+        return pinned;
+    }
+
+    void pin(boolean pinned)
+    {
+        this.pinned = pinned;
+    }
+
+    void touch()
+    {
+        lastUsed = System.nanoTime();
+    }
+
+    void close()
+    {
+        if (statements != null)
+            statements.close();
+        try {
+            connection.close();
+        } catch (SQLException ex) {
+            // the connection is discarded anyway
+        }
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2023 Ilyes Sadaoui.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ilyriadz.database;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * a LRU cache of the results of the select queries keyed by table,
+ * criteria, parameters and class, the entries expire after a time to live
+ * and the entries of a table are dropped when the table is written.<br>
+ * a result is kept as the values read by the mapper, not as objects, see
+ * {@link CachedRows}.<br>
+ * every table has a version incremented by a write, a result read while 
+ * the table was written is not cached.
+ *
+ * @author Ilyes Sadaoui
+ */
+final class QueryCache
+{
+    /**
+     * the written table of a SQL statement, null for a query
+     */
+    private static final Pattern WRITTEN_TABLE = Pattern.compile(
+        "^\\s*(?:insert\\s+into|merge\\s+into|update|delete\\s+from|" +
+        "truncate\\s+table|drop\\s+table|alter\\s+table|create\\s+table)" +
+        "(?:\\s+if\\s+(?:not\\s+)?exists)?\\s+([\\w.\"`]+)",
+        Pattern.CASE_INSENSITIVE);
+    
+    private static final Pattern QUERY = Pattern.compile(
+        "^\\s*(?:select|with|values|show|explain|call)\\b", 
+        Pattern.CASE_INSENSITIVE);
+    
+    private record Key(String table, String criteria, List<Object> params, 
+        Class<?> type)
+    {
+    }
+    
+    private record Result(CachedRows<?> rows, long expiry)
+    {
+    }
+    
+    private final int maxEntries;
+    private final long ttl;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final Map<String, Long> versions = new HashMap<>();
+    private long epoch;
+    private final LinkedHashMap<Key, Result> entries = 
+        new LinkedHashMap<>(16, 0.75f, true)
+    {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Result> eldest)
+        {
+            if (size() <= maxEntries)
+                return false;
+            
+            evictions.increment();
+            return true;
+        }
+    };
+
+    QueryCache(int maxEntries, Duration ttl)
+    {
+        if (maxEntries < 1)
+            throw new IllegalArgumentException("maxEntries must be positive: " + 
+                maxEntries);
+        if (ttl.isNegative() || ttl.isZero())
+            throw new IllegalArgumentException("ttl must be positive: " + ttl);
+        
+        this.maxEntries = maxEntries;
+        this.ttl = ttl.toNanos();
+    }
+    
+    static Object key(String table, String criteria, Class<?> type, 
+        Object[] params)
+    {
+        return new Key(normalize(table), criteria == null ? "" : criteria, 
+            Arrays.asList(params.clone()), type);
+    }
+    
+    static String normalize(String table)
+    {
+        var name = table.strip().replace("\"", "").replace("`", "");
+        return name.substring(name.lastIndexOf('.') + 1)
+            .toLowerCase(Locale.ROOT);
+    }
+    
+    /**
+     * @param key the key of a query
+     * @return the cached rows, or null if not cached or expired
+     */
+    synchronized CachedRows<?> get(Object key)
+    {
+        var entry = entries.get(key);
+        if (entry != null && entry.expiry() - System.nanoTime() > 0)
+        {
+            hits.increment();
+            return entry.rows();
+        }
+        
+        if (entry != null)
+        {
+            entries.remove(key);
+            evictions.increment();
+        }
+        misses.increment();
+        return null;
+    }
+    
+    /**
+     * @param key the key of a query
+     * @return the version of the table of the query, to be passed to 
+     *  <code>put</code> after the query
+     */
+    synchronized long version(Object key)
+    {
+        // both only grow, so any write changes the sum
+        return epoch + versions.getOrDefault(((Key) key).table(), 0L);
+    }
+    
+    /**
+     * cache the rows of a query if its table was not written since 
+     * <code>version</code>
+     */
+    synchronized void put(Object key, long version, CachedRows<?> rows)
+    {
+        if (version == version(key))
+            entries.put((Key) key, new Result(rows, System.nanoTime() + ttl));
+    }
+    
+    /**
+     * drop the cached results of a table
+     * @param table the table name
+     */
+    synchronized void invalidate(String table)
+    {
+        var name = normalize(table);
+        versions.merge(name, 1L, Long::sum);
+        entries.keySet().removeIf(key -> key.table().equals(name));
+    }
+    
+    /**
+     * drop the cached results of the table written by a SQL statement, or
+     * all the results if the table is not known
+     * @param sql the SQL statement
+     */
+    void written(String sql)
+    {
+        var matcher = WRITTEN_TABLE.matcher(sql);
+        if (matcher.find())
+            invalidate(matcher.group(1));
+        else if (!QUERY.matcher(sql).find())
+            clear();
+    }
+    
+    synchronized void clear()
+    {
+        epoch++;
+        entries.clear();
+    }
+    
+    synchronized CacheStatistics statistics()
+    {
+        return new CacheStatistics(hits.sum(), misses.sum(), evictions.sum(), 
+            entries.size());
+    }
+}
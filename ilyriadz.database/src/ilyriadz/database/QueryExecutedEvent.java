@@ -0,0 +1,75 @@
+/*
+ * Copyright 2023 Ilyes Sadaoui.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ilyriadz.database;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * a JDK Flight Recorder event of an executed SQL statement, disabled unless
+ * a recording enables <code>ilyriadz.database.QueryExecuted</code>
+ *
+ * @author Ilyes Sadaoui
+ */
+@Name("ilyriadz.database.QueryExecuted")
+@Label("Query Executed")
+@Category({"ilyriadz", "Database"})
+@Description("A SQL statement executed by a DatabaseManager")
+@Enabled(false)
+@StackTrace(false)
+final class QueryExecutedEvent extends Event
+{
+    @Label("Table")
+    String table;
+    
+    @Label("Operation")
+    String operation;
+    
+    @Label("SQL")
+    String sql;
+    
+    @Label("Rows")
+    @Description("The number of written rows")
+    long rows;
+    
+    @Label("Failed")
+    boolean failed;
+    
+    /**
+     * end the event and commit it if it is enabled and long enough
+     * @param sql the SQL statement
+     * @param rows the number of written rows
+     * @param failed true if the statement threw an exception
+     */
+    void commit(String sql, long rows, boolean failed)
+    {
+        end();
+        if (!shouldCommit())
+            return;
+        
+        this.table = StatementMetrics.table(sql);
+        this.operation = StatementMetrics.operation(sql);
+        this.sql = sql;
+        this.rows = rows;
+        this.failed = failed;
+        commit();
+    }
+}
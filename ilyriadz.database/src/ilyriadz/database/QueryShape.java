@@ -0,0 +1,48 @@
+/*
+ * Copyright 2023 Ilyes Sadaoui.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ilyriadz.database;
+
+import java.util.List;
+
+/**
+ * the columns filtered and ordered on by the statements of an operation on
+ * a table, whatever the parameters and literal values
+ *
+ * @param table the table name in lower case
+ * @param operation <code>select</code>, <code>update</code> or 
+ *        <code>delete</code>
+ * @param equalityColumns the columns compared by <code>=</code>, 
+ *        <code>IN</code> or <code>IS</code> in the <code>WHERE</code> clause
+ * @param rangeColumns the columns compared by <code>&lt;</code>, 
+ *        <code>&gt;</code>, <code>BETWEEN</code> or <code>LIKE</code> in the
+ *        <code>WHERE</code> clause
+ * @param orderColumns the columns of the <code>ORDER BY</code> clause
+ * @param count the number of executed statements
+ * @param totalMillis the total duration of the statements in milliseconds
+ *
+ * @author Ilyes Sadaoui
+ */
+public record QueryShape(String table, String operation, 
+    List<String> equalityColumns, List<String> rangeColumns, 
+    List<String> orderColumns, long count, double totalMillis)
+{
+    public QueryShape
+    {
+        equalityColumns = List.copyOf(equalityColumns);
+        rangeColumns = List.copyOf(rangeColumns);
+        orderColumns = List.copyOf(orderColumns);
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2023 Ilyes Sadaoui.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ilyriadz.database;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * a lazy iterator over a forward-only cursor, every row is mapped when it is
+ * reached so only one row is held in memory by the iterator.<br>
+ * the iterator holds a connection until it is closed or exhausted, it must be
+ * closed if it is not iterated to the end.
+ *
+ * @param <T> the row type
+ * @author Ilyes Sadaoui
+ */
+public final class ResultIterator<T> implements Iterator<T>, AutoCloseable
+{
+    private final PreparedStatement statement;
+    private final ResultSet resultSet;
+    private final RowReader<T> reader;
+    private final StatementMetrics.Entry entry;
+    private final Runnable release;
+    private long rows;
+    private boolean fetched;
+    private boolean hasNext;
+    private boolean closed;
+
+    ResultIterator(PreparedStatement statement, ResultSet resultSet,
+        RowReader<T> reader, StatementMetrics.Entry entry, Runnable release)
+    {
+        this.statement = statement;
+        this.resultSet = resultSet;
+        this.reader = reader;
+        this.entry = entry;
+        this.release = release;
+    }
+
+    @Override
+    public boolean hasNext()
+    {
+        if (closed)
+            return false;
+
+        if (!fetched)
+        {
+            try {
+                // a lazy cursor runs the query while fetching, so it can be
+                // cancelled like its execution
+                CancelScope.running(statement);
+                try {
+                    hasNext = resultSet.next();
+                } finally {
+                    CancelScope.running(null);
+                }
+                fetched = true;
+            } catch (SQLException ex) {
+                close();
+                throw new UncheckedSQLException(ex);
+            }
+
+            if (!hasNext)
+                close();
+        }
+
+        return hasNext;
+    }
+
+    @Override
+    public T next()
+    {
+        if (!hasNext())
+            throw new NoSuchElementException();
+
+        fetched = false;
+        rows++;
+        try {
+            return reader.read(resultSet);
+        } catch (SQLException ex) {
+            close();
+            throw new UncheckedSQLException(ex);
+        }
+    }
+
+    /**
+     * @return a sequential stream over the remaining rows, closing the stream
+     *  closes this iterator
+     */
+    public Stream<T> stream()
+    {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this,
+            Spliterator.ORDERED | Spliterator.NONNULL), false)
+            .onClose(this::close);
+    }
+
+    /**
+     * close the cursor and give back its connection
+     */
+    @Override
+    public void close()
+    {
+        if (closed)
+            return;
+        closed = true;
+        hasNext = false;
+        
+        // the rows are counted once and not by a shared counter every row
+        if (entry != null)
+        {
+            entry.read(rows);
+            entry.mapped(rows);
+        } // end if
+
+        try (statement) {
+            resultSet.close();
+        } catch (SQLException ex) {
+            throw new UncheckedSQLException(ex);
+        } finally {
+            release.run();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2023 Ilyes Sadaoui.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ilyriadz.database;
+
+import java.util.List;
+
+/**
+ * parses and validates the fields of a line of a delimited file into an
+ * object<br>
+ * the parser is called from several threads at the same time, it must not
+ * share a mutable state.
+ * @param <T> the object type
+ * @author Ilyes Sadaoui
+ * @see DatabaseManager#load(java.nio.file.Path, java.nio.file.Path, java.lang.String, java.lang.Class, ilyriadz.database.LoadSettings, ilyriadz.database.RowParser, java.util.function.Consumer) 
+ */
+@FunctionalInterface
+public interface RowParser<T>
+{
+    /**
+     * @param fields the fields of a line
+     * @return the object holding the line values
+     * @throws IllegalArgumentException if the line is not valid, the line 
+     *  is rejected with the exception message
+     */
+    T parse(List<String> fields);
+}
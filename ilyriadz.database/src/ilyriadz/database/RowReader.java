@@ -0,0 +1,35 @@
+/*
+ * Copyright 2023 Ilyes Sadaoui.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ilyriadz.database;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * reads the current row of a ResultSet into an object
+ * @param <T> the object type
+ * @author Ilyes Sadaoui
+ */
+@FunctionalInterface
+public interface RowReader<T>
+{
+    /**
+     * @param rs a ResultSet positioned on a row
+     * @return the object holding the row values
+     * @throws SQLException if SQL exception occurred
+     */
+    T read(ResultSet rs) throws SQLException;
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2023 Ilyes Sadaoui.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ilyriadz.database;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * a JDK Flight Recorder event of the rows of a query mapped to objects,
+ * disabled unless a recording enables 
+ * <code>ilyriadz.database.RowsMapped</code>
+ *
+ * @author Ilyes Sadaoui
+ */
+@Name("ilyriadz.database.RowsMapped")
+@Label("Rows Mapped")
+@Category({"ilyriadz", "Database"})
+@Description("The rows of a query read and mapped to objects")
+@Enabled(false)
+@StackTrace(false)
+final class RowsMappedEvent extends Event
+{
+    @Label("Table")
+    String table;
+    
+    @Label("Type")
+    Class<?> type;
+    
+    @Label("Rows")
+    long rows;
+    
+    /**
+     * end the event and commit it if it is enabled and long enough
+     * @param table the table name
+     * @param type the mapped class
+     * @param rows the number of mapped rows
+     */
+    void commit(String table, Class<?> type, long rows)
+    {
+        end();
+        if (!shouldCommit())
+            return;
+        
+        this.table = table;
+        this.type = type;
+        this.rows = rows;
+        commit();
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2023 Ilyes Sadaoui.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ilyriadz.database;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.FileHandler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.SimpleFormatter;
+
+/**
+ * writes the statements slower than a threshold to a rotating log file with
+ * their parameters, duration, written rows and execution plan.<br>
+ * the plan is queried and the record written by a background thread, the
+ * executing thread only hands the statement over to a bounded queue, the
+ * statements are dropped if the queue is full.<br>
+ * the plan of a query is read by <code>EXPLAIN ANALYZE</code>, which 
+ * executes the query again and shows the rows scanned by every table, the
+ * plan of an <code>INSERT</code>, <code>UPDATE</code>, <code>DELETE</code>
+ * or <code>MERGE</code> is read by <code>EXPLAIN</code>, which does not
+ * execute it.
+ *
+ * @author Ilyes Sadaoui
+ */
+final class SlowQueryLog
+{
+    private static final int QUEUE_SIZE = 256;
+    
+    private final DatabaseManager dbm;
+    private final long threshold;
+    private final FileHandler handler;
+    private final ThreadPoolExecutor writer;
+    private final LongAdder dropped = new LongAdder();
+    
+    SlowQueryLog(DatabaseManager dbm, Duration threshold, String pattern, 
+        int limit, int count) throws IOException
+    {
+        if (threshold.isNegative())
+            throw new IllegalArgumentException("negative threshold: " + 
+                threshold);
+        
+        this.dbm = dbm;
+        this.threshold = threshold.toNanos();
+        this.handler = new FileHandler(pattern, limit, count, true);
+        this.handler.setFormatter(new SimpleFormatter());
+        this.writer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, 
+            new ArrayBlockingQueue<>(QUEUE_SIZE), r ->
+            {
+                var thread = new Thread(r, "ilyriadz.database-slow-queries");
+                thread.setDaemon(true);
+                return thread;
+            }, (r, executor) -> dropped.increment());
+    }
+    
+    /**
+     * hand a statement over to the writer thread if it is slow
+     * @param sql the SQL statement
+     * @param params the bound parameters values, null if they are not known
+     * @param nanos the duration of the execution
+     * @param rows the number of written rows
+     * @param failed true if the execution threw an exception
+     */
+    void executed(String sql, Object[] params, long nanos, long rows, 
+        boolean failed)
+    {
+        if (nanos < threshold)
+            return;
+        
+        var values = params == null ? null : params.clone();
+        writer.execute(() -> write(sql, values, nanos, rows, failed));
+    }
+    
+    private void write(String sql, Object[] params, long nanos, long rows, 
+        boolean failed)
+    {
+        var table = StatementMetrics.table(sql);
+        var message = new StringBuilder()
+            .append(String.format("slow %s%s: %.3f ms, %d rows written%s%n", 
+                StatementMetrics.operation(sql), 
+                table.isEmpty() ? "" : " on ".concat(table), 
+                nanos / 1_000_000d, rows, failed ? ", failed" : ""))
+            .append("sql: ").append(sql).append(System.lineSeparator())
+            .append("params: ").append(params == null ? "unknown" : 
+                Arrays.deepToString(params)).append(System.lineSeparator());
+        
+        var explain = explain(sql);
+        if (explain != null && !failed && (params != null || !sql.contains("?")))
+        {
+            try {
+                message.append("plan:").append(System.lineSeparator())
+                    .append(dbm.explain(explain.concat(sql), params));
+            } catch (SQLException | RuntimeException ex) {
+                message.append("plan unavailable: ").append(ex.getMessage())
+                    .append(System.lineSeparator());
+            }
+        } // end if
+        
+        var dropping = dropped.sumThenReset();
+        if (dropping > 0)
+            message.append(dropping).append(" slow statements dropped before")
+                .append(System.lineSeparator());
+        
+        var record = new LogRecord(Level.WARNING, message.toString().strip());
+        record.setLoggerName(DatabaseManager.class.getName());
+        handler.publish(record);
+    }
+    
+    /**
+     * @return the explain command of a statement, null if it has no plan
+     */
+    private static String explain(String sql)
+    {
+        return switch (StatementMetrics.operation(sql))
+        {
+            case "select", "with" -> "explain analyze ";
+            case "insert", "update", "delete", "merge" -> "explain ";
+            default -> null;
+        };
+    }
+    
+    /**
+     * write the pending statements and close the log file
+     */
+    void close()
+    {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            handler.close();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+/*
+ * Copyright 2023 Ilyes Sadaoui.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ilyriadz.database;
+
+import java.sql.SQLException;
+
+/**
+ * a function that can throw a SQLException
+ * @param <T> the argument type
+ * @param <R> the result type
+ * @author Ilyes Sadaoui
+ */
+@FunctionalInterface
+interface SqlFunction<T, R>
+{
+    R apply(T t) throws SQLException;
+}
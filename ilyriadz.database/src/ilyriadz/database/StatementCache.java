@@ -0,0 +1,142 @@
+/*
+ * Copyright 2023 Ilyes Sadaoui.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ilyriadz.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * a LRU cache of the PreparedStatement objects of one connection keyed by
+ * their SQL, so a statement with the same shape is parsed only once.<br>
+ * a statement is leased until its ResultSet is closed: a leased statement
+ * is never handed out again, a fresh statement is prepared for the same SQL
+ * instead, and a leased statement evicted from the cache is closed when it
+ * is returned, so an open cursor is never closed under its reader.
+ *
+ * @author Ilyes Sadaoui
+ */
+final class StatementCache
+{
+    /**
+     * the settings and the counters shared by all the caches of a
+     * DatabaseManager
+     */
+    static final class Shared
+    {
+        volatile int capacity = 64;
+        final LongAdder hits = new LongAdder();
+        final LongAdder misses = new LongAdder();
+        final LongAdder evictions = new LongAdder();
+        final LongAdder size = new LongAdder();
+
+        CacheStatistics statistics()
+        {
+            return new CacheStatistics(hits.sum(), misses.sum(), 
+                evictions.sum(), size.sum());
+        }
+    }
+
+    private final Shared shared;
+    private final LinkedHashMap<String, PreparedStatement> statements = 
+        new LinkedHashMap<>(16, 0.75f, true)
+    {
+        @Override
+        protected boolean removeEldestEntry(
+            Map.Entry<String, PreparedStatement> eldest)
+        {
+            if (size() <= shared.capacity)
+                return false;
+
+            shared.evictions.increment();
+            shared.size.decrement();
+            if (!leased.containsKey(eldest.getValue()))
+                closeQuietly(eldest.getValue());
+            return true;
+        }
+    };
+    
+    // the leased statements and their SQL
+    private final Map<PreparedStatement, String> leased = new IdentityHashMap<>();
+
+    StatementCache(Shared shared)
+    {
+        this.shared = shared;
+    }
+
+    /**
+     * lease the statement of sql, it must be returned when its execution or
+     * its ResultSet is done
+     * @param connection the connection owning this cache
+     * @param sql the SQL statement
+     * @return the cached PreparedStatement of sql, prepared if not found, or
+     *  a fresh PreparedStatement if the cached one is leased
+     * @throws SQLException if SQL exception occurred
+     */
+    synchronized PreparedStatement lease(Connection connection, String sql) 
+        throws SQLException
+    {
+        var ps = statements.get(sql);
+        if (ps != null && !ps.isClosed() && !leased.containsKey(ps))
+        {
+            shared.hits.increment();
+            leased.put(ps, sql);
+            return ps;
+        }
+
+        shared.misses.increment();
+        var fresh = connection.prepareStatement(sql);
+        if (ps == null || ps.isClosed())
+        {
+            if (statements.put(sql, fresh) == null)
+                shared.size.increment();
+        } // end if
+        
+        leased.put(fresh, sql);
+        return fresh;
+    }
+    
+    /**
+     * return a leased statement, it is closed if it is not cached
+     * @param ps the leased statement
+     */
+    synchronized void returned(PreparedStatement ps)
+    {
+        var sql = leased.remove(ps);
+        if (sql != null && statements.get(sql) != ps)
+            closeQuietly(ps);
+    }
+
+    synchronized void close()
+    {
+        statements.values().forEach(StatementCache::closeQuietly);
+        shared.size.add(-statements.size());
+        statements.clear();
+    }
+
+    private static void closeQuietly(PreparedStatement ps)
+    {
+        try {
+            ps.close();
+        } catch (SQLException ex) {
+            // the statement is discarded anyway
+        }
+    }
+}
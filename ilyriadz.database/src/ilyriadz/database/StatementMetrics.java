@@ -0,0 +1,287 @@
+/*
+ * Copyright 2023 Ilyes Sadaoui.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ilyriadz.database;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * the metrics of the statements executed by a DatabaseManager, by table and
+ * operation.<br>
+ * the counters are striped adders and lock-free histograms, so recording a
+ * statement never blocks the other threads. the table and operation of a
+ * SQL text are parsed once and kept for the next executions of the same
+ * text.
+ *
+ * @author Ilyes Sadaoui
+ */
+final class StatementMetrics implements DatabaseManagerMXBean
+{
+    /**
+     * the first table named by a SQL statement
+     */
+    private static final Pattern TABLE = Pattern.compile(
+        "\\b(?:from|into|update|table|on)" +
+        "(?:\\s+if\\s+(?:not\\s+)?exists)?\\s+([\\w.\"`]+)",
+        Pattern.CASE_INSENSITIVE);
+    
+    private static final Pattern OPERATION = Pattern.compile("^[\\s(]*(\\w+)");
+    
+    /**
+     * the maximum number of SQL texts remembered, the statements with
+     * literal values instead of placeholders are parsed every time once it
+     * is reached
+     */
+    private static final int MAX_STATEMENTS = 4096;
+    
+    private record Key(String table, String operation)
+    {
+    }
+    
+    static final class Entry
+    {
+        private final Key key;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder mapped = new LongAdder();
+        private final LongAdder sqlBytes = new LongAdder();
+        
+        private Entry(Key key)
+        {
+            this.key = key;
+        }
+        
+        /**
+         * count the rows read from a result
+         * @param count the number of read rows
+         */
+        void read(long count)
+        {
+            if (count > 0)
+                rows.add(count);
+        }
+        
+        /**
+         * count the rows mapped to objects
+         * @param count the number of mapped rows
+         */
+        void mapped(long count)
+        {
+            mapped.add(count);
+        }
+        
+        private StatementStatistics statistics()
+        {
+            return new StatementStatistics(key.table(), key.operation(), 
+                latency.count(), failed.sum(), rows.sum(), mapped.sum(), 
+                sqlBytes.sum(), millis(latency.total()), 
+                millis(latency.percentile(0.5)), millis(latency.percentile(0.99)), 
+                millis(latency.max()));
+        }
+    }
+    
+    private final ConcurrentHashMap<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Entry> statements = 
+        new ConcurrentHashMap<>();
+    
+    /**
+     * @param sql a SQL statement
+     * @return the metrics of the table and operation of the statement
+     */
+    Entry entry(String sql)
+    {
+        var entry = statements.get(sql);
+        if (entry != null)
+            return entry;
+        
+        entry = entries.computeIfAbsent(key(sql), Entry::new);
+        if (statements.size() < MAX_STATEMENTS)
+            statements.putIfAbsent(sql, entry);
+        
+        return entry;
+    }
+    
+    /**
+     * @param table a table name
+     * @param operation a SQL keyword in lower case
+     * @return the metrics of the table and operation
+     */
+    Entry entry(String table, String operation)
+    {
+        return entries.computeIfAbsent(new Key(QueryCache.normalize(table), 
+            operation), Entry::new);
+    }
+    
+    private static Key key(String sql)
+    {
+        return new Key(table(sql), operation(sql));
+    }
+    
+    /**
+     * @param sql a SQL statement
+     * @return the first table named by the statement in lower case, empty if
+     *  it names no table
+     */
+    static String table(String sql)
+    {
+        var matcher = TABLE.matcher(sql);
+        return matcher.find() ? QueryCache.normalize(matcher.group(1)) : "";
+    }
+    
+    /**
+     * @param sql a SQL statement
+     * @return the first keyword of the statement in lower case
+     */
+    static String operation(String sql)
+    {
+        var matcher = OPERATION.matcher(sql);
+        return matcher.find() ? matcher.group(1).toLowerCase(Locale.ROOT) : "";
+    }
+    
+    /**
+     * record an executed statement, the rows read from a query result are
+     * counted by the loop reading them with {@link Entry#read(long)}
+     * @param sql the SQL statement
+     * @param nanos the duration of the execution
+     * @param rows the number of written rows
+     * @param failed true if the execution threw an exception
+     */
+    void executed(String sql, long nanos, long rows, boolean failed)
+    {
+        var entry = entry(sql);
+        entry.latency.record(nanos);
+        entry.sqlBytes.add(utf8Length(sql));
+        if (rows > 0)
+            entry.rows.add(rows);
+        if (failed)
+            entry.failed.increment();
+    }
+    
+    /**
+     * the rows written by a statement
+     * @param result the result of <code>executeUpdate</code> or 
+     *  <code>executeBatch</code>
+     * @return the number of rows, 0 for other results
+     */
+    static long rows(Object result)
+    {
+        if (result instanceof Integer count)
+            return Math.max(count, 0);
+        if (result instanceof Long count)
+            return Math.max(count, 0);
+        if (result instanceof int[] counts)
+        {
+            long total = 0;
+            for (var count : counts)
+                total += Math.max(count, 0);
+            
+            return total;
+        }
+        
+        return 0;
+    }
+    
+    /**
+     * @param text a text
+     * @return the number of bytes of the text encoded in UTF-8, without 
+     *  encoding it
+     */
+    static long utf8Length(String text)
+    {
+        long length = text.length();
+        for (int i = 0; i < text.length(); i++)
+        {
+            var c = text.charAt(i);
+            if (c >= 0x800)
+                // a surrogate pair is 4 bytes for 2 chars
+                length += Character.isSurrogate(c) ? 1 : 2;
+            else if (c >= 0x80)
+                length++;
+        } // end for
+        
+        return length;
+    }
+    
+    private static double millis(long nanos)
+    {
+        return nanos / 1_000_000d;
+    }
+
+    @Override
+    public long getStatementCount()
+    {
+        long count = 0;
+        for (var entry : entries.values())
+            count += entry.latency.count();
+        
+        return count;
+    }
+
+    @Override
+    public long getFailedStatementCount()
+    {
+        long count = 0;
+        for (var entry : entries.values())
+            count += entry.failed.sum();
+        
+        return count;
+    }
+
+    @Override
+    public long getRowCount()
+    {
+        long count = 0;
+        for (var entry : entries.values())
+            count += entry.rows.sum();
+        
+        return count;
+    }
+
+    @Override
+    public long getMappedRowCount()
+    {
+        long count = 0;
+        for (var entry : entries.values())
+            count += entry.mapped.sum();
+        
+        return count;
+    }
+
+    @Override
+    public List<StatementStatistics> getStatementStatistics()
+    {
+        var statistics = new ArrayList<StatementStatistics>(entries.size());
+        for (var entry : entries.values())
+            statistics.add(entry.statistics());
+        
+        statistics.sort(Comparator.comparingDouble(
+            StatementStatistics::totalMillis).reversed());
+        return statistics;
+    }
+
+    @Override
+    public void reset()
+    {
+        statements.clear();
+        entries.clear();
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2023 Ilyes Sadaoui.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ilyriadz.database;
+
+/**
+ * a snapshot of the metrics of the statements of an operation on a table,
+ * the durations are in milliseconds
+ *
+ * @param table the table name in lower case, empty if the statement has no
+ *        table
+ * @param operation the first SQL keyword of the statements in lower case:
+ *        <code>select</code>, <code>insert</code>, <code>update</code>...
+ * @param count the number of executed statements
+ * @param failed the number of statements which threw an exception
+ * @param rows the number of rows written by the statements or read from
+ *        their results by the mapping and the export, the rows of a 
+ *        ResultSet returned by <code>executeQuery</code> are not counted
+ * @param rowsMapped the number of rows mapped to objects
+ * @param sqlBytes the total size of the SQL text of the statements in 
+ *        UTF-8 bytes
+ * @param totalMillis the total duration
+ * @param p50Millis the median duration
+ * @param p99Millis the 99th percentile of the durations
+ * @param maxMillis the longest duration
+ *
+ * @author Ilyes Sadaoui
+ */
+public record StatementStatistics(String table, String operation, long count,
+    long failed, long rows, long rowsMapped, long sqlBytes, double totalMillis,
+    double p50Millis, double p99Millis, double maxMillis)
+{
+    /**
+     * @return the mean duration in milliseconds
+     */
+    public double meanMillis()
+    {
+        return count == 0 ? 0 : totalMillis / count;
+    }
+}
@@ -0,0 +1,300 @@
+/*
+ * Copyright 2023 Ilyes Sadaoui.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ilyriadz.database;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Base64;
+
+/**
+ * writes the rows of a ResultSet as text.<br>
+ * the rows are formatted into one reusable buffer which is written to the
+ * Writer every {@link #FLUSH_SIZE} characters, so there is no formatter and
+ * no String by row, only the column values read by the driver.
+ *
+ * @author Ilyes Sadaoui
+ */
+final class TableExporter
+{
+    static final int FLUSH_SIZE = 8192;
+    private static final int MAX_WIDTH = 40;
+
+    /**
+     * how the value of a column is written
+     */
+    private enum Kind
+    {
+        NUMBER, FLOATING, BOOLEAN, BINARY, TEXT
+    }
+
+    private final ResultSet rs;
+    private final ExportFormat format;
+    private final Writer out;
+    private final StringBuilder buffer = new StringBuilder(FLUSH_SIZE * 2);
+    private final int count;
+    private final Kind[] kinds;
+    private final String[] names;
+    private final int[] widths;
+
+    private TableExporter(ResultSet rs, ExportFormat format, Writer out)
+        throws SQLException
+    {
+        this.rs = rs;
+        this.format = format;
+        this.out = out;
+
+        var rsmd = rs.getMetaData();
+        count = rsmd.getColumnCount();
+        kinds = new Kind[count];
+        names = new String[count];
+        widths = new int[count];
+        for (int i = 0; i < count; i++)
+        {
+            var label = rsmd.getColumnLabel(i + 1);
+            kinds[i] = kind(rsmd.getColumnType(i + 1));
+            widths[i] = Math.max(label.length(),
+                Math.min(rsmd.getColumnDisplaySize(i + 1), MAX_WIDTH));
+
+            // the JSON key is escaped once and not for every row
+            if (format == ExportFormat.JSON_LINES)
+            {
+                buffer.setLength(0);
+                appendJson(label);
+                names[i] = buffer.append(':').toString();
+            }
+            else
+                names[i] = label;
+        } // end for
+        buffer.setLength(0);
+    }
+
+    /**
+     * write all the remaining rows of a ResultSet, the Writer is flushed
+     * and not closed
+     * @return the number of written rows
+     */
+    static long export(ResultSet rs, ExportFormat format, Writer out)
+        throws SQLException, IOException
+    {
+        return new TableExporter(rs, format, out).export();
+    }
+
+    private static Kind kind(int sqlType)
+    {
+        return switch (sqlType)
+        {
+            case Types.TINYINT, Types.SMALLINT, Types.INTEGER, Types.BIGINT,
+                Types.DECIMAL, Types.NUMERIC -> Kind.NUMBER;
+            case Types.REAL, Types.FLOAT, Types.DOUBLE -> Kind.FLOATING;
+            case Types.BOOLEAN, Types.BIT -> Kind.BOOLEAN;
+            case Types.BINARY, Types.VARBINARY, Types.LONGVARBINARY,
+                Types.BLOB -> Kind.BINARY;
+            default -> Kind.TEXT;
+        };
+    }
+
+    private long export() throws SQLException, IOException
+    {
+        if (format != ExportFormat.JSON_LINES)
+            appendHeader();
+
+        long rows = 0;
+        while (rs.next())
+        {
+            switch (format)
+            {
+                case CSV -> appendCsvRow();
+                case JSON_LINES -> appendJsonRow();
+                case FIXED_WIDTH -> appendFixedRow();
+            }
+            buffer.append('\n');
+            rows++;
+
+            if (buffer.length() >= FLUSH_SIZE)
+                flush();
+        } // end while
+
+        flush();
+        out.flush();
+        return rows;
+    }
+
+    private void flush() throws IOException
+    {
+        out.append(buffer);
+        buffer.setLength(0);
+    }
+
+    private void appendHeader()
+    {
+        for (int i = 0; i < count; i++)
+        {
+            if (format == ExportFormat.CSV)
+            {
+                if (i > 0)
+                    buffer.append(',');
+                appendCsv(names[i]);
+            }
+            else
+                appendFixed(names[i], i);
+        } // end for
+        buffer.append('\n');
+    }
+
+    private void appendCsvRow() throws SQLException
+    {
+        for (int i = 0; i < count; i++)
+        {
+            if (i > 0)
+                buffer.append(',');
+
+            var value = rs.getString(i + 1);
+            if (value != null)
+                appendCsv(value);
+        } // end for
+    }
+
+    private void appendCsv(String value)
+    {
+        var quoted = false;
+        for (int k = 0; k < value.length() && !quoted; k++)
+        {
+            var c = value.charAt(k);
+            quoted = c == ',' || c == '"' || c == '\n' || c == '\r';
+        } // end for
+
+        if (!quoted)
+        {
+            buffer.append(value);
+            return;
+        }
+
+        buffer.append('"');
+        for (int k = 0; k < value.length(); k++)
+        {
+            var c = value.charAt(k);
+            if (c == '"')
+                buffer.append('"');
+            buffer.append(c);
+        } // end for
+        buffer.append('"');
+    }
+
+    private void appendFixedRow() throws SQLException
+    {
+        for (int i = 0; i < count; i++)
+            appendFixed(rs.getString(i + 1), i);
+    }
+
+    private void appendFixed(String value, int column)
+    {
+        if (column > 0)
+            buffer.append(' ');
+
+        var text = value == null ? "null" : value;
+        buffer.append(text);
+        if (column < count - 1)
+        {
+            for (int k = text.length(); k < widths[column]; k++)
+                buffer.append(' ');
+        }
+    }
+
+    private void appendJsonRow() throws SQLException
+    {
+        buffer.append('{');
+        for (int i = 0; i < count; i++)
+        {
+            if (i > 0)
+                buffer.append(',');
+            buffer.append(names[i]);
+
+            switch (kinds[i])
+            {
+                case NUMBER ->
+                {
+                    var value = rs.getString(i + 1);
+                    buffer.append(value == null ? "null" : value);
+                }
+                case FLOATING ->
+                {
+                    // NaN and the infinities are not JSON numbers
+                    var value = rs.getDouble(i + 1);
+                    if (rs.wasNull())
+                        buffer.append("null");
+                    else if (Double.isFinite(value))
+                        buffer.append(value);
+                    else
+                        buffer.append('"').append(value).append('"');
+                }
+                case BOOLEAN ->
+                {
+                    var value = rs.getBoolean(i + 1);
+                    buffer.append(rs.wasNull() ? "null" : value);
+                }
+                case BINARY ->
+                {
+                    var value = rs.getBytes(i + 1);
+                    if (value == null)
+                        buffer.append("null");
+                    else
+                        buffer.append('"')
+                            .append(Base64.getEncoder().encodeToString(value))
+                            .append('"');
+                }
+                case TEXT ->
+                {
+                    var value = rs.getString(i + 1);
+                    if (value == null)
+                        buffer.append("null");
+                    else
+                        appendJson(value);
+                }
+            }
+        } // end for
+        buffer.append('}');
+    }
+
+    private void appendJson(String value)
+    {
+        buffer.append('"');
+        for (int k = 0; k < value.length(); k++)
+        {
+            var c = value.charAt(k);
+            switch (c)
+            {
+                case '"' -> buffer.append("\\\"");
+                case '\\' -> buffer.append("\\\\");
+                case '\n' -> buffer.append("\\n");
+                case '\r' -> buffer.append("\\r");
+                case '\t' -> buffer.append("\\t");
+                default ->
+                {
+                    if (c < 0x20)
+                        buffer.append("\\u00")
+                            .append(Character.forDigit(c >> 4, 16))
+                            .append(Character.forDigit(c & 0xf, 16));
+                    else
+                        buffer.append(c);
+                }
+            }
+        } // end for
+        buffer.append('"');
+    }
+}
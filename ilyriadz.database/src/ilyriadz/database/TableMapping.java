@@ -0,0 +1,108 @@
+/*
+ * Copyright 2023 Ilyes Sadaoui.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ilyriadz.database;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * the mapping of a class to a table compiled as plain Java code.<br>
+ * the <code>ilyriadz.database.processor</code> annotation processor 
+ * generates a mapping named <code>&lt;class name&gt;_TableMapping</code>
+ * in the package of every class with fields tagged with 
+ * <code>{@literal @}TypeProperties</code>, the mapping registers itself
+ * with {@link EntityMapper#register(ilyriadz.database.TableMapping)} when
+ * it is loaded. a class without a generated mapping is mapped by
+ * reflection.
+ *
+ * @param <T> the class type
+ * @author Ilyes Sadaoui
+ */
+public interface TableMapping<T>
+{
+    /**
+     * @return the mapped class
+     */
+    Class<T> type();
+    
+    /**
+     * @return the names of the fields tagged with 
+     *  <code>{@literal @}TypeProperties</code> in declaration order
+     */
+    List<String> columns();
+    
+    /**
+     * @return the types of the {@link #columns()} fields
+     */
+    List<Class<?>> columnTypes();
+    
+    /**
+     * @return the <code>CREATE TABLE</code> definitions of the 
+     *  {@link #columns()}
+     */
+    List<String> columnDefinitions();
+    
+    /**
+     * @param entity an object
+     * @param column the index of the column in {@link #columns()}
+     * @return the field value of the column
+     */
+    Object get(T entity, int column);
+    
+    /**
+     * bind the values of the {@link #columns()} of an object to the 
+     * parameters of a statement
+     * @param ps the statement
+     * @param firstIndex the index of the parameter of the first column
+     * @param entity the object
+     * @throws SQLException if SQL exception occurred
+     */
+    void bind(PreparedStatement ps, int firstIndex, T entity) 
+        throws SQLException;
+    
+    /**
+     * create a reader for the rows of a ResultSet, the columns without a
+     * field with the same name are ignored
+     * @param rsmd the ResultSet metadata
+     * @return the row reader
+     * @throws SQLException if SQL exception occurred
+     */
+    RowReader<T> reader(ResultSetMetaData rsmd) throws SQLException;
+    
+    /**
+     * @return the names of the fields set from a row in declaration order,
+     *  the components of a record or the fields which are not final of a 
+     *  class
+     */
+    List<String> properties();
+    
+    /**
+     * @return the types of the {@link #properties()} fields
+     */
+    List<Class<?>> propertyTypes();
+    
+    /**
+     * create an object from the values of its {@link #properties()}, a 
+     * property which is not selected keeps the value given by the class 
+     * constructor, or the default value of its type for a record
+     * @param values the values of the properties, an enum by its constant
+     * @param selected true for the properties which have a value
+     * @return the new object
+     */
+    T create(Object[] values, boolean[] selected);
+}
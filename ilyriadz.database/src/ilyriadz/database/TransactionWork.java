@@ -0,0 +1,37 @@
+/*
+ * Copyright 2023 Ilyes Sadaoui.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ilyriadz.database;
+
+import java.sql.SQLException;
+
+/**
+ * a unit of work run in a transaction by 
+ * <code>DatabaseManager.inTransaction</code>
+ * @param <R> the result type
+ * @author Ilyes Sadaoui
+ */
+@FunctionalInterface
+public interface TransactionWork<R>
+{
+    /**
+     * @param dbm the DatabaseManager running the transaction, all its
+     *  operations called by the current thread join the transaction
+     * @return the result of the work
+     * @throws SQLException if SQL exception occurred, the transaction is
+     *  rolled back
+     */
+    R run(DatabaseManager dbm) throws SQLException;
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2023 Ilyes Sadaoui.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ilyriadz.database;
+
+import java.sql.SQLException;
+import java.util.Objects;
+
+/**
+ * wraps a SQLException thrown where a checked exception is not allowed,
+ * like inside an Iterator or a Stream
+ * @author Ilyes Sadaoui
+ */
+public class UncheckedSQLException extends RuntimeException
+{
+    private static final long serialVersionUID = 1L;
+    
+    public UncheckedSQLException(SQLException cause)
+    {
+        super(Objects.requireNonNull(cause));
+    }
+
+    @Override
+    public synchronized SQLException getCause()
+    {
+        return (SQLException) super.getCause();
+    }
+}
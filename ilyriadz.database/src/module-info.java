@@ -17,6 +17,8 @@
 module ilyriadz.database {
     requires transitive java.sql;
     requires transitive java.logging;
+    requires java.management;
+    requires jdk.jfr;
     
     //requires static com.h2database;
     
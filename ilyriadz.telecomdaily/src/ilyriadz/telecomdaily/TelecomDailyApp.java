@@ -5,29 +5,45 @@
 
 package ilyriadz.telecomdaily;
 
+import ilyriadz.database.AsyncDatabaseManager;
 import ilyriadz.database.DatabaseManager;
 import ilyriadz.database.H2Database;
+import ilyriadz.database.LoadStatistics;
+import ilyriadz.database.PoolSettings;
 import ilyriadz.database.util.DatabaseGutil;
+import ilyriadz.database.util.FieldValidator;
 import ilyriadz.database.util.PanelData;
 import java.awt.BorderLayout;
 import java.awt.Color;
 import java.awt.FlowLayout;
 import java.awt.Font;
+import java.awt.GraphicsEnvironment;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
+import java.io.IOException;
 import java.sql.SQLException;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
 import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.regex.Pattern;
 import javax.swing.BoxLayout;
 import javax.swing.JButton;
+import javax.swing.JFileChooser;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 import javax.swing.JTable;
 import javax.swing.JTextField;
+import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
+import javax.swing.Timer;
 
 /**
  *
@@ -35,23 +51,38 @@ import javax.swing.JTextField;
  */
 public class TelecomDailyApp extends javax.swing.JFrame {
     
+    /**
+     * the delay without keystroke before the telephone lookup
+     */
+    private static final int LOOKUP_DELAY = 250;
+    
     private static DatabaseManager dbm;
+    private static AsyncDatabaseManager async;
     private JTable table = new JTable();
     private PanelData panelData;
     private JPanel buttonPanel;
-    private JButton insert, update, delete;
+    private JButton insert, update, delete, load;
     private JTextField idFld, telFld, referenceFld;
     
     private boolean idValidated, telValidated, refValidated;
     
+    private final Timer lookupTimer = new Timer(LOOKUP_DELAY, evt -> lookup());
+    private CompletableFuture<List<TelecomRefView>> lookup;
+    
     static
     {
         try {
             dbm = new H2Database();
-            dbm.connect("./telecomdaily", "ilyes", "sadaoui");
-            dbm.createNotExistTable("references", TelecomRef.class);
+            // pooled, so the lookups and table loads run beside the event thread
+            dbm.connect("./telecomdaily", "ilyes", "sadaoui", PoolSettings.of(4));
+            TelecomSchema.create(dbm);
+            dbm.enableResultCache(256, Duration.ofMinutes(5));
+            async = new AsyncDatabaseManager(dbm, 2);
         } catch (SQLException ex) {
             Logger.getLogger(TelecomDailyApp.class.getName()).log(Level.SEVERE, null, ex);
+            if (!GraphicsEnvironment.isHeadless())
+                JOptionPane.showMessageDialog(null, ex.getMessage(), 
+                    "ERROR", JOptionPane.ERROR_MESSAGE);
             System.exit(0);
         } catch (ClassNotFoundException ex) {
             Logger.getLogger(TelecomDailyApp.class.getName()).log(Level.SEVERE, null, ex);
@@ -62,6 +93,7 @@ public class TelecomDailyApp extends javax.swing.JFrame {
     /** Creates new form TelecomDailyApp */
     public TelecomDailyApp() {
         initComponents();
+        lookupTimer.setRepeats(false);
         
         setSize(800, 600);
         
@@ -145,9 +177,13 @@ public class TelecomDailyApp extends javax.swing.JFrame {
             buttons[i].setEnabled(false);
         } // end for
         
+        load = new JButton("Import");
+        load.setFont(font);
+        
         buttonPanel.add(insert);
         buttonPanel.add(update);
         buttonPanel.add(delete);
+        buttonPanel.add(load);
     }
     
     private void initButtonsEvents()
@@ -155,31 +191,88 @@ public class TelecomDailyApp extends javax.swing.JFrame {
         insert.addActionListener((evt) ->
         {
             try {
-                var list = dbm.select("references", 
-                    "where tel=" + panelData.getField("tel").getText() +
-                    " and id=" + idFld.getText() +
-                    " and reference like '" + panelData.getField("reference").getText()
-                 + "' limit 1", TelecomRef.class);
-                if (!list.isEmpty())
+                var tel = Integer.parseInt(panelData.getField("tel").getText());
+                var id = Integer.parseInt(idFld.getText());
+                var reference = panelData.getField("reference").getText();
+                
+                var telref = new TelecomRef();
+                telref.setTel(tel);
+                telref.setId(id);
+                telref.setReference(reference);
+                telref.setDt(LocalDateTime.now().withNano(0));
+                
+                // the duplicate check and the insertion in one statement
+                var inserted = dbm.insertIfAbsent("references", 
+                    List.of("tel", "id", "reference"), telref);
+                if (!inserted)
                 {
                     insert.setEnabled(false);
                     return;
                 }
                 
-                dbm.insert("references", List.of("id", "tel", "reference", "dt"),
-                        idFld.getText(), 
-                        panelData.getField("tel").getText(),
-                        "'" + panelData.getField("reference").getText() + "'",
-                        "'" + LocalDateTime.now().format(TelecomRef.DATE_TIME_FORMATER) + "'");
-                table.setModel(DatabaseGutil.generateTableModel(dbm, "references", 
-                    " where tel=" + Integer.parseInt(panelData.getField("tel").getText()),
-                    TelecomRef.class));
-            } catch (SQLException | NoSuchFieldException | IllegalArgumentException |
-                    IllegalAccessException ex) {
+                DatabaseGutil.loadTable(table, dbm, "references", "where tel=?",
+                    TelecomRef.class, tel);
+            } catch (SQLException ex) {
                 Logger.getLogger(TelecomDailyApp.class.getName()).log(Level.SEVERE, null, ex);
                 JOptionPane.showMessageDialog(this, ex.getMessage(), 
                     "ERROR", JOptionPane.ERROR_MESSAGE);
         }});
+        
+        load.addActionListener((evt) -> importFile());
+    }
+    
+    /**
+     * load a CSV or TSV file of references in the background, the progress
+     * is shown in the title
+     */
+    private void importFile()
+    {
+        var chooser = new JFileChooser(".");
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION)
+            return;
+        
+        var source = chooser.getSelectedFile().toPath();
+        var title = getTitle();
+        load.setEnabled(false);
+        
+        new SwingWorker<LoadStatistics, LoadStatistics>()
+        {
+            @Override
+            protected LoadStatistics doInBackground() 
+                throws IOException, SQLException
+            {
+                return TelecomRefImport.load(dbm, source, this::publish);
+            }
+
+            @Override
+            protected void process(List<LoadStatistics> chunks)
+            {
+                setTitle(source.getFileName() + ": " + 
+                    TelecomRefImport.format(chunks.get(chunks.size() - 1)));
+            }
+
+            @Override
+            protected void done()
+            {
+                setTitle(title);
+                load.setEnabled(true);
+                try {
+                    var statistics = get();
+                    var message = TelecomRefImport.format(statistics);
+                    if (statistics.rejected() > 0)
+                        message += "\nrejected lines in " + 
+                            TelecomRefImport.rejects(source);
+                    JOptionPane.showMessageDialog(TelecomDailyApp.this, 
+                        message, "Import", JOptionPane.INFORMATION_MESSAGE);
+                } catch (InterruptedException | ExecutionException ex) {
+                    Logger.getLogger(TelecomDailyApp.class.getName()).log(Level.SEVERE, null, ex);
+                    JOptionPane.showMessageDialog(TelecomDailyApp.this, 
+                        ex.getCause() == null ? ex.getMessage() : 
+                        ex.getCause().getMessage(), 
+                        "ERROR", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        }.execute();
     }
     
     private void initFieldsEvents()
@@ -189,11 +282,12 @@ public class TelecomDailyApp extends javax.swing.JFrame {
         final var reference = panelData.getField("reference");
         
         final JTextField[] fields = {id, tel, reference};
+        final String[] names = {"id", "tel", "reference"};
         
-        final String[] regexes = {
-            TelecomRef.ID_REGEX, 
-            TelecomRef.TEL_REGEX,
-            TelecomRef.REF_REGEX};
+        final Pattern[] patterns = {
+            TelecomRef.ID_PATTERN, 
+            TelecomRef.TEL_PATTERN,
+            TelecomRef.REF_PATTERN};
         
         Consumer<Boolean> idValidate = (b) -> {
             idValidated = b;
@@ -204,27 +298,9 @@ public class TelecomDailyApp extends javax.swing.JFrame {
             idFld.setEnabled(b);
             panelData.getField("reference").setEnabled(b);
             if (b)
-            {
-                try {
-                    var list = dbm.select("references", "where tel=" +
-                            telFld.getText() + 
-                            " order by dt desc limit 1 ", 
-                            TelecomRef.class);
-                    if (!list.isEmpty())
-                    {
-                        var telref = list.get(0);
-                        
-                        table.setModel(DatabaseGutil.generateTableModel(dbm, "references", 
-                            "where tel=" + telref.tel(), TelecomRef.class));
-                        idFld.setText(String.valueOf(telref.id()));
-                        panelData.getField("reference").setText(String.valueOf(telref.reference()));
-                    }
-                } catch (SQLException | NoSuchFieldException |
-                        IllegalArgumentException | IllegalAccessException ex) {
-                    Logger.getLogger(TelecomDailyApp.class.getName()).log(Level.SEVERE, null, ex);
-                } 
-                    
-            } // end if
+                lookupTimer.restart();
+            else
+                cancelLookup();
         };
         
         Consumer<Boolean> refValidate = (b) -> {
@@ -241,26 +317,23 @@ public class TelecomDailyApp extends javax.swing.JFrame {
             var field = fields[i];
             var b = validates[i];
             var validator = validators.get(i);
-            var regex = regexes[i];
+            var pattern = patterns[i];
+            
+            // recorded as a flight recorder event
+            var check = FieldValidator.recorded(names[i], () -> {
+                var str = field.getText();
+                var valid = !str.isBlank() && pattern.matcher(str).matches();
+                field.setBackground(valid ? null : new Color(1, 0, 0, 0.3f));
+                validator.accept(valid);
+                return valid;
+            });
             
             field.addKeyListener(new KeyAdapter() 
             {
                 @Override
                 public void keyReleased(KeyEvent e) 
                 {
-                    var str = ((JTextField)e.getSource()).getText();
-                    
-                    if (str.isBlank() || !str.matches(regex))
-                    {
-                        field.setBackground(new Color(1, 0, 0, 0.3f));
-                        validator.accept(false);
-                    }
-                    else
-                    {
-                        field.setBackground(null);  
-                        validator.accept(true);
-                    }
-                
+                    check.validate();
                     insert.setEnabled(validated());
                     System.out.println(idValidated + " " + telValidated + " " +
                         refValidated);
@@ -269,6 +342,61 @@ public class TelecomDailyApp extends javax.swing.JFrame {
         }
     }
     
+    /**
+     * look up the last reference of the typed telephone in the background,
+     * the lookup started before is cancelled
+     */
+    private void lookup()
+    {
+        cancelLookup();
+        if (!telValidated)
+            return;
+        
+        var text = telFld.getText();
+        var current = async.projectAsync("references", 
+            "where tel=? order by dt desc limit 1", TelecomRefView.class, 
+            Integer.parseInt(text));
+        lookup = current;
+        current.whenComplete((list, ex) -> SwingUtilities.invokeLater(() -> 
+        {
+            // superseded by a keystroke or a newer lookup
+            if (lookup != current || !telFld.getText().equals(text))
+                return;
+            
+            lookup = null;
+            if (ex != null)
+            {
+                var cause = ex instanceof CompletionException ? ex.getCause() : ex;
+                if (!(cause instanceof CancellationException))
+                    Logger.getLogger(TelecomDailyApp.class.getName()).log(Level.SEVERE, null, cause);
+                return;
+            }
+            
+            if (!list.isEmpty())
+            {
+                var telref = list.get(0);
+                
+                DatabaseGutil.loadTable(table, dbm, "references", 
+                    "where tel=?", TelecomRef.class, telref.tel());
+                idFld.setText(String.valueOf(telref.id()));
+                panelData.getField("reference").setText(String.valueOf(telref.reference()));
+            }
+        }));
+    }
+    
+    /**
+     * stop the pending lookup and cancel the running one with its statement
+     */
+    private void cancelLookup()
+    {
+        lookupTimer.stop();
+        if (lookup != null)
+        {
+            lookup.cancel(true);
+            lookup = null;
+        }
+    }
+    
     private boolean validated()
     {
         return idValidated && telValidated && refValidated;
@@ -4,19 +4,26 @@
  */
 package ilyriadz.telecomdaily;
 
+import ilyriadz.database.CompositeIndex;
 import ilyriadz.database.TypeProperties;
 import java.lang.reflect.InvocationTargetException;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.regex.Pattern;
 
 /**
- *
+ * a reference of a telephone, the rows are read by telephone and latest 
+ * date so the (tel, dt) index covers the lookups
  * @author user
  */
+@CompositeIndex(columns = {"tel", "dt"}, include = {"id", "reference"})
+@CompositeIndex(columns = {"tel", "id", "reference"}, unique = true)
 public class TelecomRef {
+    public final static String DATE_TIME_PATTERN = "dd/MM/yyyy HH:mm:ss";
     public final static DateTimeFormatter DATE_TIME_FORMATER = 
-        DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
+        DateTimeFormatter.ofPattern(DATE_TIME_PATTERN);
     public final static String ID_REGEX = 
         "([0-9]{1}||[1-9][0-9]||[1-9][0-9][0-9]||[1][0-9][0-9][0-9]){1}";
     public final static String TEL_REGEX =
@@ -36,6 +43,9 @@ public class TelecomRef {
         HEAD_NAME_REF_REGEX + "\\." +
         GROUP_NAME_REF_REGEX + "\\." +
         PAIR_NAME_REF_REGEX + "){0,3}";
+    public final static Pattern ID_PATTERN = Pattern.compile(ID_REGEX);
+    public final static Pattern TEL_PATTERN = Pattern.compile(TEL_REGEX);
+    public final static Pattern REF_PATTERN = Pattern.compile(REF_REGEX);
     
     @TypeProperties("(9) not null")
     private int tel;
@@ -46,8 +56,8 @@ public class TelecomRef {
     @TypeProperties("(255) not null")
     private String reference;
     
-    @TypeProperties("(255) not null")
-    private String dt;
+    @TypeProperties("not null")
+    private LocalDateTime dt;
 
     public TelecomRef() {
     }
@@ -76,9 +86,29 @@ public class TelecomRef {
         this.reference = reference;
     }
 
-    public String dt() {
+    public LocalDateTime dt() {
         return dt;
     }   
+
+    public void setDt(LocalDateTime dt) {
+        this.dt = dt;
+    }
+    
+    /**
+     * the validators share the compiled patterns and can be called from
+     * several threads at the same time
+     */
+    public static boolean isValidId(CharSequence text) {
+        return ID_PATTERN.matcher(text).matches();
+    }
+    
+    public static boolean isValidTel(CharSequence text) {
+        return TEL_PATTERN.matcher(text).matches();
+    }
+    
+    public static boolean isValidRef(CharSequence text) {
+        return REF_PATTERN.matcher(text).matches();
+    }
     
     private boolean validateId(Object obj)
     {
@@ -87,7 +117,7 @@ public class TelecomRef {
             var method = cls.getMethod("getText");
             String text = (String) method.invoke(obj);
             
-            return text.matches(ID_REGEX);
+            return isValidId(text);
         } catch (NoSuchMethodException | SecurityException | 
             IllegalAccessException | IllegalArgumentException | 
             InvocationTargetException ex)
@@ -104,8 +134,7 @@ public class TelecomRef {
         try {
             var method = cls.getMethod("getText");
             String text = (String) method.invoke(obj);
-            "".matches(ID_REGEX);
-            return text.matches(TEL_REGEX);
+            return isValidTel(text);
         } catch (NoSuchMethodException | SecurityException | 
             IllegalAccessException | IllegalArgumentException | 
             InvocationTargetException ex)
@@ -123,7 +152,7 @@ public class TelecomRef {
             var method = cls.getMethod("getText");
             String text = (String) method.invoke(obj);
             
-            return text.matches(REF_REGEX);
+            return isValidRef(text);
         } catch (NoSuchMethodException | SecurityException | 
             IllegalAccessException | IllegalArgumentException | 
             InvocationTargetException ex)
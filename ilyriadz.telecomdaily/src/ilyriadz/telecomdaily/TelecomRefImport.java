@@ -0,0 +1,134 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package ilyriadz.telecomdaily;
+
+import ilyriadz.database.DatabaseManager;
+import ilyriadz.database.H2Database;
+import ilyriadz.database.LoadSettings;
+import ilyriadz.database.LoadStatistics;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * loads the references of a CSV or TSV file with a header line, the fields
+ * of a line are tel, id, reference and an optional date formatted by
+ * {@link TelecomRef#DATE_TIME_PATTERN}, the load date is used if it is
+ * missing.<br>
+ * the invalid lines and the lines of a reference already in the table are
+ * written to the rejects file next to the file, so a file can be imported
+ * again.
+ * @author user
+ */
+public class TelecomRefImport {
+
+    private TelecomRefImport() {
+    }
+
+    /**
+     * parse and validate the fields of a line
+     * @param fields the fields of a line
+     * @return the reference
+     * @throws IllegalArgumentException if a field is not valid
+     */
+    public static TelecomRef parse(List<String> fields) {
+        if (fields.size() != 3 && fields.size() != 4)
+            throw new IllegalArgumentException(
+                "expected tel, id, reference and dt but found " +
+                fields.size() + " fields");
+
+        var tel = fields.get(0).strip();
+        var id = fields.get(1).strip();
+        var reference = fields.get(2).strip();
+        if (tel.isEmpty() || !TelecomRef.isValidTel(tel))
+            throw new IllegalArgumentException("invalid tel: " + tel);
+        if (id.isEmpty() || !TelecomRef.isValidId(id))
+            throw new IllegalArgumentException("invalid id: " + id);
+        if (reference.isEmpty() || !TelecomRef.isValidRef(reference))
+            throw new IllegalArgumentException("invalid reference: " + reference);
+
+        var telref = new TelecomRef();
+        telref.setTel(Integer.parseInt(tel));
+        telref.setId(Integer.parseInt(id));
+        telref.setReference(reference);
+
+        if (fields.size() == 4 && !fields.get(3).isBlank()) {
+            try {
+                telref.setDt(LocalDateTime.parse(fields.get(3).strip(),
+                    TelecomRef.DATE_TIME_FORMATER));
+            } catch (DateTimeException ex) {
+                throw new IllegalArgumentException("invalid dt: " +
+                    fields.get(3), ex);
+            }
+        } else {
+            telref.setDt(LocalDateTime.now().withNano(0));
+        }
+
+        return telref;
+    }
+
+    /**
+     * the rejects file of a file: its name followed by <code>.rejects</code>
+     * @param source the loaded file
+     * @return the rejects file
+     */
+    public static Path rejects(Path source) {
+        return source.resolveSibling(source.getFileName() + ".rejects");
+    }
+
+    /**
+     * load a file into the references table, a <code>.tsv</code> file is tab
+     * separated and the other files comma separated
+     * @param dbm the DatabaseManager
+     * @param source the file
+     * @param progress called after every batch
+     * @return the load statistics
+     * @throws IOException if the files can not be read or written
+     * @throws SQLException if SQL exception occurred
+     */
+    public static LoadStatistics load(DatabaseManager dbm, Path source,
+        Consumer<? super LoadStatistics> progress)
+        throws IOException, SQLException {
+        var settings = source.getFileName().toString()
+            .toLowerCase(Locale.ROOT).endsWith(".tsv") ?
+            LoadSettings.tsv() : LoadSettings.csv();
+
+        return dbm.load(source, rejects(source), "references",
+            TelecomRef.class, settings, TelecomRefImport::parse, progress);
+    }
+
+    public static String format(LoadStatistics statistics) {
+        return String.format("%d lines, %d inserted, %d rejected, %.0f lines/s",
+            statistics.read(), statistics.inserted(), statistics.rejected(),
+            statistics.rowsPerSecond());
+    }
+
+    public static void main(String[] args)
+        throws IOException, SQLException, ClassNotFoundException {
+        if (args.length == 0) {
+            System.err.println("usage: TelecomRefImport file...");
+            return;
+        }
+
+        try (var dbm = new H2Database()) {
+            dbm.connect("./telecomdaily", "ilyes", "sadaoui");
+            TelecomSchema.create(dbm);
+
+            for (var arg : args) {
+                var source = Path.of(arg);
+                System.out.println(source);
+                var statistics = load(dbm, source,
+                    s -> System.out.println("  " + format(s)));
+                if (statistics.rejected() > 0)
+                    System.out.println("  rejected lines in " + rejects(source));
+            }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Record.java to edit this template
+ */
+package ilyriadz.telecomdaily;
+
+import ilyriadz.database.TypeProperties;
+
+/**
+ * the columns of a reference read by the telephone lookup, the date is only
+ * used to order the rows so it is not selected
+ * @author user
+ */
+public record TelecomRefView(
+    @TypeProperties("(9) not null") int tel,
+    @TypeProperties("(4) not null") int id,
+    @TypeProperties("(255) not null") String reference) {
+}
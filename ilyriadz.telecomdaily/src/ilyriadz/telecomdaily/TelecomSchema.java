@@ -0,0 +1,120 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package ilyriadz.telecomdaily;
+
+import ilyriadz.database.DatabaseManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+
+/**
+ * creates or upgrades the references table, called by every program
+ * opening the database before it reads or writes the table.
+ * @author user
+ */
+final class TelecomSchema {
+
+    private static final int MAX_LISTED_DUPLICATES = 20;
+
+    private TelecomSchema() {
+    }
+
+    /**
+     * create the references table and its indexes if they do not exist,
+     * after converting a table written by an older version
+     * @param dbm the DatabaseManager
+     * @throws SQLException if SQL exception occurred
+     */
+    static void create(DatabaseManager dbm) throws SQLException {
+        // before the indexes, an index on the old dt column blocks its drop
+        migrateDateTimes(dbm);
+        checkDuplicateKeys(dbm);
+        dbm.createNotExistTable("references", TelecomRef.class);
+    }
+
+    /**
+     * convert the dt column of a database created when dt was a
+     * <code>dd/MM/yyyy HH:mm:ss</code> text to a timestamp, so the rows
+     * are ordered by time and not by day of month.<br>
+     * H2 commits every DDL statement, so each step can run again: a
+     * migration stopped midway is finished by the next start.
+     */
+    private static void migrateDateTimes(DatabaseManager dbm)
+        throws SQLException {
+        String dt = null;
+        var converted = false;
+        try (var rs = dbm.executeQuery("select column_name, type_name from " +
+            "information_schema.columns where table_name=?", "REFERENCES")) {
+            while (rs.next()) {
+                if (rs.getString(1).equals("DT"))
+                    dt = rs.getString(2);
+                else if (rs.getString(1).equals("DT_TS"))
+                    converted = true;
+            }
+        }
+
+        if (dt != null && dt.equalsIgnoreCase("varchar")) {
+            // the indexes on dt are created again by createNotExistTable
+            var indexes = new ArrayList<String>();
+            try (var rs = dbm.executeQuery("select distinct index_name from " +
+                "information_schema.indexes where table_name=? and " +
+                "column_name=? and not primary_key", "REFERENCES", "DT")) {
+                while (rs.next())
+                    indexes.add(rs.getString(1));
+            }
+            for (var index : indexes)
+                dbm.execute("drop index if exists \"" + index + "\"");
+
+            dbm.execute("alter table references add column if not exists dt_ts timestamp");
+            dbm.execute("update references set dt_ts=parsedatetime(dt, '" +
+                TelecomRef.DATE_TIME_PATTERN + "')");
+            dbm.execute("alter table references drop column dt");
+        } else if (dt != null || !converted)
+            return;
+
+        dbm.execute("alter table references alter column dt_ts rename to dt");
+        dbm.execute("alter table references alter column dt set not null");
+    }
+
+    /**
+     * check that no rows repeat the tel, id and reference of another row
+     * before the unique index on these columns is created, a database
+     * written before the index can hold them. the rows are not deleted, the
+     * user chooses the rows to keep
+     * @throws SQLException listing the repeated keys if there are some
+     */
+    private static void checkDuplicateKeys(DatabaseManager dbm)
+        throws SQLException {
+        try (var rs = dbm.executeQuery("select exists(select 1 from " +
+            "information_schema.tables where table_name=?) and not " +
+            "exists(select 1 from information_schema.indexes where " +
+            "table_name=? and not non_unique and not primary_key)",
+            "REFERENCES", "REFERENCES")) {
+            if (!rs.next() || !rs.getBoolean(1))
+                return;
+        }
+
+        var duplicates = new StringBuilder();
+        var count = 0;
+        try (var rs = dbm.executeQuery("select tel, id, reference, count(*) " +
+            "from references group by tel, id, reference " +
+            "having count(*) > 1 order by tel, id, reference")) {
+            while (rs.next()) {
+                if (++count <= MAX_LISTED_DUPLICATES)
+                    duplicates.append(String.format("%n  tel=%d id=%d " +
+                        "reference=%s: %d rows", rs.getInt(1), rs.getInt(2),
+                        rs.getString(3), rs.getLong(4)));
+            }
+        }
+
+        if (count > MAX_LISTED_DUPLICATES)
+            duplicates.append(String.format("%n  and %d other keys",
+                count - MAX_LISTED_DUPLICATES));
+        if (count > 0)
+            throw new SQLException("repeated tel, id and reference keys in " +
+                "the references table: " + count + ", delete the extra rows " +
+                "so the unique index on these columns can be created:" +
+                duplicates);
+    }
+}
@@ -3,7 +3,7 @@
  * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/module-info.java to edit this template
  */
 
-open module ilyriadz.telecomdaily {
+module ilyriadz.telecomdaily {
     
     requires ilyriadz.database;
     requires static com.h2database;